@@ -0,0 +1,23 @@
+package com.celebstash.backend.config;
+
+import com.celebstash.backend.media.LocalMediaStorage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Serves files written by {@link LocalMediaStorage}, such as thumbnails, under /media
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MediaStorageConfig implements WebMvcConfigurer {
+
+    private final LocalMediaStorage storage;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(LocalMediaStorage.PUBLIC_PATH + "/**")
+                .addResourceLocations("file:" + storage.getRoot() + "/");
+    }
+}
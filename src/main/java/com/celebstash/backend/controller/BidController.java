@@ -3,11 +3,15 @@ package com.celebstash.backend.controller;
 import com.celebstash.backend.dto.bid.BidRequest;
 import com.celebstash.backend.dto.bid.BidResponse;
 import com.celebstash.backend.service.BidService;
+import com.celebstash.backend.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +24,7 @@ import java.util.List;
 public class BidController {
 
     private final BidService bidService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     @Operation(summary = "Get all bidding products", description = "Returns all products available for bidding")
@@ -28,6 +33,13 @@ public class BidController {
         return ResponseEntity.ok(bidService.getBiddingProducts());
     }
 
+    @GetMapping("/active")
+    @Operation(summary = "Get active auctions", description = "Returns open auctions with pagination, ending soonest first")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<Page<BidResponse>> getActiveAuctions(@PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(bidService.getActiveAuctions(pageable));
+    }
+
     @GetMapping("/{productId}")
     @Operation(summary = "Get bid details", description = "Returns details of a specific bid")
     @SecurityRequirement(name = "bearerAuth")
@@ -36,9 +48,12 @@ public class BidController {
     }
 
     @PostMapping
-    @Operation(summary = "Place a bid", description = "Places a bid on a product")
+    @Operation(summary = "Place a bid", description = "Places a bid on a product. Retries with the same Idempotency-Key replay the first response")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<BidResponse> placeBid(@Valid @RequestBody BidRequest request) {
-        return ResponseEntity.ok(bidService.placeBid(request));
+    public ResponseEntity<BidResponse> placeBid(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BidRequest request) {
+        return ResponseEntity.ok(idempotencyService.execute("bid", idempotencyKey, request,
+                BidResponse.class, () -> bidService.placeBid(request)));
     }
 }
\ No newline at end of file
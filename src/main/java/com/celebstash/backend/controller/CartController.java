@@ -1,7 +1,9 @@
 package com.celebstash.backend.controller;
 
 import com.celebstash.backend.dto.cart.CartResponse;
+import com.celebstash.backend.dto.cart.CheckoutResponse;
 import com.celebstash.backend.service.CartService;
+import com.celebstash.backend.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final CartService cartService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     @Operation(summary = "Get cart items", description = "Returns all items in the user's cart")
@@ -59,4 +62,14 @@ public class CartController {
         cartService.clearCart();
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/checkout")
+    @Operation(summary = "Checkout", description = "Buys every item in the user's cart at the current price, or nothing if any item is out of stock or the balance is insufficient. Retries with the same Idempotency-Key replay the first response")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<CheckoutResponse> checkout(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        // Checkout has no body; the cart contents tell a retry from a key reused for a different cart
+        return ResponseEntity.ok(idempotencyService.execute("cart-checkout", idempotencyKey,
+                cartService::getCartContents, CheckoutResponse.class, cartService::checkout));
+    }
 }
@@ -1,14 +1,26 @@
 package com.celebstash.backend.controller;
 
+import com.celebstash.backend.dto.product.AutocompleteSuggestion;
+import com.celebstash.backend.dto.product.ProductBulkStatusUpdateRequest;
+import com.celebstash.backend.dto.product.ProductBulkStatusUpdateResponse;
+import com.celebstash.backend.dto.product.ProductCatalogFilter;
+import com.celebstash.backend.dto.product.ProductPageResponse;
 import com.celebstash.backend.dto.product.ProductRequest;
 import com.celebstash.backend.dto.product.ProductResponse;
+import com.celebstash.backend.dto.product.ProductSearchHit;
 import com.celebstash.backend.dto.product.ProductStatusUpdateRequest;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import com.celebstash.backend.service.AutocompleteService;
+import com.celebstash.backend.service.InventoryService;
+import com.celebstash.backend.service.ProductSearchService;
 import com.celebstash.backend.service.ProductService;
 import java.math.BigDecimal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +40,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final AutocompleteService autocompleteService;
 
     @PostMapping
     @Operation(summary = "Create a new product", description = "Creates a new product with PENDING status")
@@ -43,6 +56,40 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @GetMapping("/catalog")
+    @Operation(summary = "Browse product catalog", description = "Returns a filtered page of products with a cursor for the next page. Regular users only see approved products, except their own")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ProductPageResponse> getCatalogPage(
+            @RequestParam(required = false) ProductType productType,
+            @RequestParam(required = false) @Min(value = 0, message = "Minimum price must be at least 0") BigDecimal minPrice,
+            @RequestParam(required = false) @Min(value = 0, message = "Maximum price must be at least 0") BigDecimal maxPrice,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(defaultValue = "NEWEST") ProductCatalogFilter.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") int size) {
+        ProductCatalogFilter filter = new ProductCatalogFilter(productType, minPrice, maxPrice, sellerId, status, sort);
+        return ResponseEntity.ok(productService.getCatalogPage(filter, cursor, size));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search products", description = "Full-text search over the names and descriptions of approved products, tolerant of prefixes and single typos")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<List<ProductSearchHit>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "Limit must be at least 1") @Max(value = ProductSearchService.MAX_RESULTS, message = "Limit is too large") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Suggest product and seller names", description = "Returns the most popular approved product names and seller names with a word starting with the typed prefix")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1") @Max(value = AutocompleteService.MAX_SUGGESTIONS, message = "Limit is too large") int limit) {
+        return ResponseEntity.ok(autocompleteService.suggest(q, limit));
+    }
+
     @GetMapping("/my-products")
     @Operation(summary = "Get my products", description = "Returns all products created by the current user")
     @SecurityRequirement(name = "bearerAuth")
@@ -67,6 +114,25 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateProductStatus(id, request));
     }
 
+    @PatchMapping("/status")
+    @Operation(summary = "Update the status of many products", description = "Approves or rejects up to 10000 products at once and reports the outcome for each (admin only)")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductBulkStatusUpdateResponse> bulkUpdateProductStatus(
+            @Valid @RequestBody ProductBulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(productService.bulkUpdateProductStatus(request));
+    }
+
+    @GetMapping("/moderation-queue")
+    @Operation(summary = "Get moderation queue", description = "Returns a page of pending products, oldest first, with a cursor for the next page (admin only)")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductPageResponse> getModerationQueue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(value = 1, message = "Size must be at least 1") int size) {
+        return ResponseEntity.ok(productService.getModerationQueue(cursor, size));
+    }
+
     @PatchMapping("/{id}/move-to-bidding")
     @Operation(summary = "Move product to bidding", description = "Moves a product to the bidding section (admin only)")
     @SecurityRequirement(name = "bearerAuth")
@@ -76,4 +142,14 @@ public class ProductController {
             @RequestParam @NotNull @Min(value = 0, message = "Initial bid price must be greater than or equal to 0") BigDecimal initialBidPrice) {
         return ResponseEntity.ok(productService.moveProductToBidding(id, initialBidPrice));
     }
+
+    @PatchMapping("/{id}/inventory-shards")
+    @Operation(summary = "Shard product inventory", description = "Splits the stock of a product across shards for high-traffic drops, 0 to stop sharding (admin only)")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponse> updateInventoryShards(
+            @PathVariable Long id,
+            @RequestParam @Min(value = 0, message = "Number of shards must be at least 0") @Max(value = InventoryService.MAX_SHARDS, message = "Too many shards") Integer shards) {
+        return ResponseEntity.ok(productService.updateInventoryShards(id, shards));
+    }
 }
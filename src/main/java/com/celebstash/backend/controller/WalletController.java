@@ -1,26 +1,34 @@
 package com.celebstash.backend.controller;
 
 import com.celebstash.backend.dto.wallet.TopUpRequest;
+import com.celebstash.backend.dto.wallet.TransactionPageResponse;
 import com.celebstash.backend.dto.wallet.TransactionResponse;
 import com.celebstash.backend.dto.wallet.WalletResponse;
+import com.celebstash.backend.service.IdempotencyService;
 import com.celebstash.backend.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/wallet")
 @RequiredArgsConstructor
+@Validated
 @Tag(name = "Wallet", description = "Wallet management APIs")
 public class WalletController {
 
     private final WalletService walletService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     @Operation(summary = "Get wallet information", description = "Returns the current user's wallet information")
@@ -30,10 +38,13 @@ public class WalletController {
     }
 
     @PostMapping("/top-up")
-    @Operation(summary = "Top up wallet", description = "Adds funds to the user's wallet")
+    @Operation(summary = "Top up wallet", description = "Adds funds to the user's wallet. Retries with the same Idempotency-Key replay the first response")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<WalletResponse> topUpWallet(@Valid @RequestBody TopUpRequest request) {
-        return ResponseEntity.ok(walletService.topUpWallet(request));
+    public ResponseEntity<WalletResponse> topUpWallet(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody TopUpRequest request) {
+        return ResponseEntity.ok(idempotencyService.execute("wallet-top-up", idempotencyKey, request,
+                WalletResponse.class, () -> walletService.topUpWallet(request)));
     }
 
     @GetMapping("/transactions")
@@ -42,4 +53,23 @@ public class WalletController {
     public ResponseEntity<List<TransactionResponse>> getTransactionHistory() {
         return ResponseEntity.ok(walletService.getTransactionHistory());
     }
+
+    @GetMapping("/transactions/page")
+    @Operation(summary = "Get transaction history page", description = "Returns a page of the user's transaction history, newest first, with a cursor for the next page")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<TransactionPageResponse> getTransactionHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") int size) {
+        return ResponseEntity.ok(walletService.getTransactionHistoryPage(cursor, size));
+    }
+
+    @GetMapping(value = "/transactions/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export transaction history", description = "Streams the user's full transaction history as newline-delimited JSON")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory() {
+        StreamingResponseBody body = walletService::exportTransactionHistory;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.celebstash.backend.dto.cart;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cart with items that has not changed since before the abandonment cutoff
+ */
+public record AbandonedCart(Long cartId, Long userId, LocalDateTime lastActivityAt) {
+}
@@ -0,0 +1,9 @@
+package com.celebstash.backend.dto.cart;
+
+import java.util.Map;
+
+/**
+ * What a cart holds, by product ID in ascending order, for telling one checkout request from another
+ */
+public record CartContents(Long cartId, Map<Long, Integer> quantities) {
+}
@@ -0,0 +1,15 @@
+package com.celebstash.backend.dto.cart;
+
+import java.math.BigDecimal;
+
+/**
+ * A cart item joined with the product fields needed to render it, loaded in a single query
+ */
+public record CartLineView(
+        Long productId,
+        String productName,
+        String productDescription,
+        String productImageUrl,
+        BigDecimal productPrice,
+        Integer quantity) {
+}
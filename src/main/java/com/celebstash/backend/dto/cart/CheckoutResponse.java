@@ -0,0 +1,20 @@
+package com.celebstash.backend.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutResponse {
+    private List<CartItemResponse> items; // charged at the current product price
+    private int totalItems;
+    private BigDecimal totalPrice;
+    private BigDecimal walletBalance; // balance after the purchase
+}
@@ -0,0 +1,33 @@
+package com.celebstash.backend.dto.ledger;
+
+import java.math.BigDecimal;
+
+/**
+ * Cached and ledger-derived balance of a wallet, read in a single statement for reconciliation
+ * @param walletId the wallet ID
+ * @param cachedBalance the balance column on the wallet
+ * @param checkpointBalance the balance of the last checkpoint, or null if there is none
+ * @param checkpointEntryId the last entry covered by the checkpoint, or null if there is none
+ * @param delta the sum of the entries posted after the checkpoint
+ * @param lastEntryId the latest entry posted to the wallet, or null if there is none
+ */
+public record WalletLedgerState(
+        Long walletId,
+        BigDecimal cachedBalance,
+        BigDecimal checkpointBalance,
+        Long checkpointEntryId,
+        BigDecimal delta,
+        Long lastEntryId) {
+
+    public BigDecimal ledgerBalance() {
+        return (checkpointBalance != null ? checkpointBalance : BigDecimal.ZERO).add(delta);
+    }
+
+    public boolean isConsistent() {
+        return ledgerBalance().compareTo(cachedBalance) == 0;
+    }
+
+    public boolean hasEntries() {
+        return lastEntryId != null;
+    }
+}
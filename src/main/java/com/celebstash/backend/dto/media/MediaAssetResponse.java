@@ -0,0 +1,33 @@
+package com.celebstash.backend.dto.media;
+
+import com.celebstash.backend.model.enums.MediaRole;
+import com.celebstash.backend.model.enums.MediaStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaAssetResponse {
+
+    private Long id;
+    private MediaRole role;
+    private Integer position;
+    private String sourceUrl;
+    private MediaStatus status;
+
+    // Known once the asset has been processed
+    private String contentType;
+    private Integer width;
+    private Integer height;
+    private Long durationMillis;
+    private Long sizeBytes;
+    private String thumbnailUrl;
+    private String failureReason;
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,10 @@
+package com.celebstash.backend.dto.media;
+
+import com.celebstash.backend.model.enums.MediaRole;
+import com.celebstash.backend.model.enums.StoryType;
+
+/**
+ * A media asset waiting to be processed, with the story type that decides what media a story URL may hold
+ */
+public record PendingMediaAsset(Long id, MediaRole role, String sourceUrl, StoryType storyType) {
+}
@@ -0,0 +1,7 @@
+package com.celebstash.backend.dto.post;
+
+/**
+ * A photo URL of a post, for loading the photos of a page of posts in one query
+ */
+public record PostPhotoUrl(Long postId, String photoUrl) {
+}
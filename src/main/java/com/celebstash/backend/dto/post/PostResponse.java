@@ -1,7 +1,9 @@
 package com.celebstash.backend.dto.post;
 
 import com.celebstash.backend.dto.comment.CommentResponse;
+import com.celebstash.backend.dto.media.MediaAssetResponse;
 import com.celebstash.backend.dto.product.ProductResponse;
+import com.celebstash.backend.model.enums.MediaStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,6 +26,10 @@ public class PostResponse {
     private String videoUrl;
     private List<String> photoUrls;
     private String description;
+
+    // Media processing; null for posts created before media ingestion existed
+    private MediaStatus mediaStatus;
+    private List<MediaAssetResponse> media;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
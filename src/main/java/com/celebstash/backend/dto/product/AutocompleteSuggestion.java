@@ -0,0 +1,18 @@
+package com.celebstash.backend.dto.product;
+
+import com.celebstash.backend.search.AutocompleteIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+    private AutocompleteIndex.Kind type; // PRODUCT or SELLER
+    private Long id;
+    private String text;
+    private long popularity;
+}
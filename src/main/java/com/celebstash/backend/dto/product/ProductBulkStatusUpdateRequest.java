@@ -0,0 +1,28 @@
+package com.celebstash.backend.dto.product;
+
+import com.celebstash.backend.model.enums.ProductStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkStatusUpdateRequest {
+
+    @NotEmpty(message = "Product IDs are required")
+    @Size(max = 10000, message = "At most 10000 products can be updated at once")
+    private List<@NotNull Long> productIds;
+
+    @NotNull(message = "Product status is required")
+    private ProductStatus status;
+
+    private String rejectionReason;
+}
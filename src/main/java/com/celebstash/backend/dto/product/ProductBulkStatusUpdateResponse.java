@@ -0,0 +1,20 @@
+package com.celebstash.backend.dto.product;
+
+import com.celebstash.backend.model.enums.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkStatusUpdateResponse {
+    private ProductStatus status;
+    private int requested;
+    private int updated;
+    private List<ProductStatusChangeResult> results; // one per distinct requested ID, in request order
+}
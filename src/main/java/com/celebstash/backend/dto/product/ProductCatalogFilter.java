@@ -0,0 +1,25 @@
+package com.celebstash.backend.dto.product;
+
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters and sort order of a product catalog query; null filters match everything
+ */
+public record ProductCatalogFilter(
+        ProductType productType,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Long sellerId,
+        ProductStatus status,
+        Sort sort) {
+
+    public enum Sort {
+        NEWEST,     // Newest first
+        OLDEST,     // Oldest first, the order of the moderation queue
+        PRICE_ASC,  // Cheapest first
+        PRICE_DESC  // Most expensive first
+    }
+}
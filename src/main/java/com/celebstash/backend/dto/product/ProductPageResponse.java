@@ -0,0 +1,17 @@
+package com.celebstash.backend.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+    private List<ProductResponse> items;
+    private String nextCursor; // null when there are no more products
+}
@@ -0,0 +1,12 @@
+package com.celebstash.backend.dto.product;
+
+/**
+ * An approved product with its seller and the number of purchases and bids placed on it
+ */
+public record ProductPopularity(
+        Long productId,
+        String productName,
+        Long sellerId,
+        String sellerName,
+        Long orders) {
+}
@@ -0,0 +1,7 @@
+package com.celebstash.backend.dto.product;
+
+/**
+ * The ID of the post that showcases a product
+ */
+public record ProductPostId(Long productId, Long postId) {
+}
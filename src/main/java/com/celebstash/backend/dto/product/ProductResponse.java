@@ -22,6 +22,7 @@ public class ProductResponse {
     private BigDecimal price;
     private String imageUrl;
     private Integer stockQuantity;
+    private Integer inventoryShards; // 0 unless the stock is split across shards
     private ProductStatus status;
     private ProductType productType;
     private Long sellerId;
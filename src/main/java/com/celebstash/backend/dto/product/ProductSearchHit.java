@@ -0,0 +1,25 @@
+package com.celebstash.backend.dto.product;
+
+import com.celebstash.backend.model.enums.ProductType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHit {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private ProductType productType;
+    private Long sellerId;
+    private String sellerName;
+    private double score;
+}
@@ -0,0 +1,23 @@
+package com.celebstash.backend.dto.product;
+
+import com.celebstash.backend.model.enums.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStatusChangeResult {
+    private Long productId;
+    private Outcome outcome;
+    private ProductStatus previousStatus; // null when the product was not found
+
+    public enum Outcome {
+        UPDATED,    // Status changed
+        UNCHANGED,  // Product already had the requested status
+        NOT_FOUND   // No product with this ID
+    }
+}
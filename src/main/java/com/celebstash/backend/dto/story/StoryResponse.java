@@ -1,6 +1,8 @@
 package com.celebstash.backend.dto.story;
 
+import com.celebstash.backend.dto.media.MediaAssetResponse;
 import com.celebstash.backend.dto.product.ProductResponse;
+import com.celebstash.backend.model.enums.MediaStatus;
 import com.celebstash.backend.model.enums.StoryType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,6 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -22,6 +25,10 @@ public class StoryResponse {
     private StoryType type;
     private String mediaUrl;
     private String caption;
+
+    // Media processing; null for text stories and stories created before media ingestion existed
+    private MediaStatus mediaStatus;
+    private List<MediaAssetResponse> media;
     private ProductResponse product;
     private Integer viewsCount;
     private LocalDateTime createdAt;
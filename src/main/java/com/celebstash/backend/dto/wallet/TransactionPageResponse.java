@@ -0,0 +1,17 @@
+package com.celebstash.backend.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+    private List<TransactionResponse> items;
+    private String nextCursor; // null when there are no more transactions
+}
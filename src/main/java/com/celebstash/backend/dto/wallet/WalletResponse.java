@@ -17,6 +17,7 @@ public class WalletResponse {
     private Long userId;
     private String userName;
     private BigDecimal balance;
+    private BigDecimal heldFunds; // reserved by pending bids, not included in balance
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.celebstash.backend.dto.wallet;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a wallet, loaded in a single query and cached for wallet reads
+ * @param heldFunds the sum of bids whose funds are still reserved
+ */
+public record WalletView(
+        Long walletId,
+        Long userId,
+        String userName,
+        BigDecimal balance,
+        BigDecimal heldFunds,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,23 @@
+package com.celebstash.backend.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers outbox events to in-process {@code @EventListener} methods that accept {@link DomainEvent}.
+ * Listeners run on the relay thread without a transaction; one that throws fails the event, which is retried.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventSink implements OutboxEventSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void publish(List<DomainEvent> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,22 @@
+package com.celebstash.backend.event;
+
+import com.celebstash.backend.model.enums.OutboxEventType;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event as delivered to sinks and in-process listeners
+ * @param id the outbox event ID; IDs are unique but do not follow commit order
+ * @param type the event type
+ * @param aggregateId the ID of the wallet or product the event is about
+ * @param payload the event data
+ * @param createdAt when the change was made
+ */
+public record DomainEvent(
+        Long id,
+        OutboxEventType type,
+        Long aggregateId,
+        JsonNode payload,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,19 @@
+package com.celebstash.backend.event;
+
+import java.util.List;
+
+/**
+ * Destination for events delivered by the outbox relay.
+ * Every sink bean receives each batch, outside any transaction; delivery is at least once, so sinks must
+ * tolerate duplicates. Events that keep failing are retried and eventually parked, so a later event may be
+ * delivered before an earlier one that failed.
+ */
+public interface OutboxEventSink {
+
+    /**
+     * Deliver a batch of events in outbox order
+     * @param events the events
+     * @throws RuntimeException to have the events retried; a failed batch is retried one event at a time
+     */
+    void publish(List<DomainEvent> events);
+}
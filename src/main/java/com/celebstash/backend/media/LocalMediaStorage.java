@@ -0,0 +1,57 @@
+package com.celebstash.backend.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * File-system stand-in for an object store holding derived media such as thumbnails.
+ * Files are written atomically under the storage directory and served from {@link #PUBLIC_PATH}.
+ */
+@Component
+public class LocalMediaStorage {
+
+    public static final String PUBLIC_PATH = "/media";
+
+    private final Path root;
+
+    public LocalMediaStorage(@Value("${app.media.storage-dir:${java.io.tmpdir}/celebstash-media}") String root) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Store a file, replacing any previous file with the same key
+     * @param key the relative path of the file, e.g. "thumbnails/42.jpg"
+     * @param content the file content
+     * @return the URL path the file is served from
+     * @throws IOException if the file cannot be written
+     */
+    public String store(String key, byte[] content) throws IOException {
+        Path target = root.resolve(key).normalize();
+        if (!target.startsWith(root)) {
+            throw new IllegalArgumentException("Storage key escapes the storage directory: " + key);
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return PUBLIC_PATH + "/" + key;
+    }
+
+    /**
+     * Get the directory files are stored in
+     * @return the storage directory
+     */
+    public Path getRoot() {
+        return root;
+    }
+}
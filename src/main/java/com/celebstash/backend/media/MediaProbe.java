@@ -0,0 +1,471 @@
+package com.celebstash.backend.media;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Fetches a media URL and describes what is behind it: content type, size, frame size, duration and,
+ * for images, a thumbnail written to {@link LocalMediaStorage}.
+ * URLs must be absolute http(s) URLs of public hosts; redirects are followed by hand so every hop is
+ * checked. Hosts are checked as they are resolved for the connection, so the address connected to is the
+ * address that was checked, whatever the host resolves to later. A download is cut off once it has taken
+ * longer than the fetch deadline. Video frames cannot be decoded without a native codec, so videos get
+ * no thumbnail.
+ */
+@Slf4j
+@Component
+public class MediaProbe {
+
+    private static final int MAX_REDIRECTS = 3;
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int THUMBNAIL_SIZE = 320;
+    private static final long MAX_DECODED_PIXELS = 100_000_000L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int MAX_CONNECTIONS = 32;
+
+    private final LocalMediaStorage storage;
+    private final long maxImageBytes;
+    private final long maxVideoBytes;
+    private final boolean allowPrivateHosts;
+    private final Duration fetchDeadline;
+    private final CloseableHttpClient httpClient;
+
+    public MediaProbe(LocalMediaStorage storage,
+                      @Value("${app.media.max-image-bytes:20971520}") long maxImageBytes,
+                      @Value("${app.media.max-video-bytes:524288000}") long maxVideoBytes,
+                      @Value("${app.media.allow-private-hosts:false}") boolean allowPrivateHosts,
+                      @Value("${app.media.fetch-deadline:120s}") Duration fetchDeadline) {
+        this.storage = storage;
+        this.maxImageBytes = maxImageBytes;
+        this.maxVideoBytes = maxVideoBytes;
+        this.allowPrivateHosts = allowPrivateHosts;
+        this.fetchDeadline = fetchDeadline;
+        int timeoutMillis = (int) TIMEOUT.toMillis();
+        this.httpClient = HttpClients.custom()
+                .setDnsResolver(this::resolve)
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .setMaxConnTotal(MAX_CONNECTIONS)
+                .setMaxConnPerRoute(MAX_CONNECTIONS)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(timeoutMillis)
+                        .setConnectionRequestTimeout(timeoutMillis)
+                        .setSocketTimeout(timeoutMillis)
+                        .build())
+                .build();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Check that a URL is well-formed, without resolving or fetching it
+     * @param url the URL
+     * @return why the URL is unusable, or empty if it looks fine
+     */
+    public Optional<String> checkSyntax(String url) {
+        if (url == null || url.isBlank()) {
+            return Optional.of("Media URL is required");
+        }
+        if (url.length() > MAX_URL_LENGTH) {
+            return Optional.of("Media URL is too long");
+        }
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+            if (!"http".equals(scheme) && !"https".equals(scheme)) {
+                return Optional.of("Media URL must use http or https: " + url);
+            }
+            if (uri.getHost() == null || uri.getHost().isBlank()) {
+                return Optional.of("Media URL has no host: " + url);
+            }
+            return Optional.empty();
+        } catch (URISyntaxException e) {
+            return Optional.of("Malformed media URL: " + url);
+        }
+    }
+
+    /**
+     * Fetch and inspect a media URL
+     * @param url the URL
+     * @param allowedKinds the kinds of media accepted at the URL
+     * @param thumbnailKey storage key for the thumbnail of an image, without extension
+     * @return what was found, or why the URL was rejected
+     */
+    public Result probe(String url, Set<MediaKind> allowedKinds, String thumbnailKey) {
+        Optional<String> syntaxError = checkSyntax(url);
+        if (syntaxError.isPresent()) {
+            return Result.failed(syntaxError.get());
+        }
+
+        long deadline = System.nanoTime() + fetchDeadline.toNanos();
+        try (CloseableHttpResponse response = fetch(URI.create(url))) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status / 100 != 2) {
+                return Result.failed("Media URL returned HTTP " + status);
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return Result.failed("Media URL returned no content");
+            }
+
+            // Not closed by itself, which would read the rest of the body; closing the response drops the connection
+            InputStream body = new BufferedInputStream(new DeadlineInputStream(entity.getContent(), deadline));
+            Long contentLength = entity.getContentLength() >= 0 ? entity.getContentLength() : null;
+            String contentType = contentType(entity, body);
+            MediaKind kind = MediaKind.of(contentType);
+            if (kind == null || !allowedKinds.contains(kind)) {
+                return Result.failed("Expected " + allowedKinds + " media but got " + contentType);
+            }
+
+            return kind == MediaKind.IMAGE
+                    ? inspectImage(body, contentType, contentLength, thumbnailKey)
+                    : inspectVideo(body, contentType, contentLength);
+        } catch (PrivateHostException | RejectedUrlException e) {
+            return Result.failed(e.getMessage());
+        } catch (UnknownHostException e) {
+            return Result.failed("Unknown media host: " + e.getMessage());
+        } catch (IOException e) {
+            return Result.failed("Could not fetch media: " + e.getMessage());
+        }
+    }
+
+    private CloseableHttpResponse fetch(URI uri) throws IOException, RejectedUrlException {
+        for (int hop = 0; ; hop++) {
+            CloseableHttpResponse response = httpClient.execute(new HttpGet(uri));
+
+            int status = response.getStatusLine().getStatusCode();
+            if (status / 100 != 3) {
+                return response;
+            }
+            Header location = response.getFirstHeader("Location");
+            response.close();
+
+            if (location == null) {
+                throw new RejectedUrlException("Redirect without a location");
+            }
+            if (hop == MAX_REDIRECTS) {
+                throw new RejectedUrlException("Too many redirects");
+            }
+            try {
+                uri = uri.resolve(location.getValue());
+            } catch (IllegalArgumentException e) {
+                throw new RejectedUrlException("Redirected to an unusable URL: " + location.getValue());
+            }
+            if (checkSyntax(uri.toString()).isPresent()) {
+                throw new RejectedUrlException("Redirected to an unusable URL: " + uri);
+            }
+        }
+    }
+
+    /**
+     * Resolve a host for a connection, keeping the server from being used to reach internal services
+     * The connection is made to exactly the addresses returned, so a host cannot pass the check with a
+     * public address and then be connected to at a private one.
+     */
+    private InetAddress[] resolve(String host) throws UnknownHostException {
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        if (!allowPrivateHosts) {
+            for (InetAddress address : addresses) {
+                if (!isPublic(address)) {
+                    throw new PrivateHostException("Media URL points to a private address: " + host);
+                }
+            }
+        }
+        return addresses;
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address instanceof Inet6Address) {
+            byte[] bytes = address.getAddress();
+            if ((bytes[0] & 0xFE) == 0xFC) {
+                // Unique local
+                return false;
+            }
+            InetAddress embedded = embeddedIpv4(bytes);
+            if (embedded != null) {
+                return isPublic(embedded);
+            }
+        }
+        if (address instanceof Inet4Address) {
+            byte[] bytes = address.getAddress();
+            int first = bytes[0] & 0xFF;
+            // "This network" and carrier-grade NAT (100.64.0.0/10)
+            if (first == 0 || (first == 100 && (bytes[1] & 0xC0) == 64)) {
+                return false;
+            }
+        }
+        return !(address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress() ||
+                 address.isAnyLocalAddress() || address.isMulticastAddress());
+    }
+
+    // The IPv4 address inside an IPv4-mapped (::ffff:a.b.c.d) or IPv4-compatible (::a.b.c.d) IPv6 address
+    private static InetAddress embeddedIpv4(byte[] bytes) {
+        for (int i = 0; i < 10; i++) {
+            if (bytes[i] != 0) {
+                return null;
+            }
+        }
+        boolean mapped = bytes[10] == (byte) 0xFF && bytes[11] == (byte) 0xFF;
+        boolean compatible = bytes[10] == 0 && bytes[11] == 0;
+        if (!mapped && !compatible) {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(new byte[] {bytes[12], bytes[13], bytes[14], bytes[15]});
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Declared content type, or the one sniffed from the first bytes when the server does not say
+    private static String contentType(HttpEntity entity, InputStream body) throws IOException {
+        String declared = Optional.ofNullable(entity.getContentType())
+                .map(header -> header.getValue().split(";", 2)[0].trim().toLowerCase(Locale.ROOT))
+                .orElse("");
+        if (!declared.isEmpty() && !declared.equals("application/octet-stream")) {
+            return declared;
+        }
+
+        body.mark(16);
+        byte[] magic = body.readNBytes(12);
+        body.reset();
+        return sniff(magic);
+    }
+
+    static String sniff(byte[] magic) {
+        if (startsWith(magic, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(magic, 0, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        }
+        if (startsWith(magic, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(magic, 0, 'R', 'I', 'F', 'F') && startsWith(magic, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        if (startsWith(magic, 4, 'f', 't', 'y', 'p')) {
+            return startsWith(magic, 8, 'q', 't') ? "video/quicktime" : "video/mp4";
+        }
+        if (startsWith(magic, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return "video/webm";
+        }
+        return "application/octet-stream";
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Result inspectImage(InputStream body, String contentType, Long contentLength, String thumbnailKey)
+            throws IOException {
+        if (contentLength != null && contentLength > maxImageBytes) {
+            return Result.failed("Image is larger than " + maxImageBytes + " bytes");
+        }
+        byte[] bytes = body.readNBytes((int) Math.min(maxImageBytes + 1, Integer.MAX_VALUE));
+        if (bytes.length > maxImageBytes) {
+            return Result.failed("Image is larger than " + maxImageBytes + " bytes");
+        }
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                // A valid image the JDK cannot decode, e.g. WebP; accepted without dimensions
+                return new Result(true, contentType, null, null, null, (long) bytes.length, null, null);
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                String thumbnailUrl = null;
+
+                if ((long) width * height <= MAX_DECODED_PIXELS) {
+                    // Subsample while decoding so large images are never held at full size
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int step = Math.max(1, Math.max(width, height) / (THUMBNAIL_SIZE * 2));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    thumbnailUrl = storage.store(thumbnailKey + ".jpg", thumbnail(reader.read(0, param)));
+                }
+                return new Result(true, contentType, width, height, null, (long) bytes.length, thumbnailUrl, null);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Result inspectVideo(InputStream body, String contentType, Long contentLength) throws IOException {
+        if (contentLength != null && contentLength > maxVideoBytes) {
+            return Result.failed("Video is larger than " + maxVideoBytes + " bytes");
+        }
+
+        Mp4Metadata metadata = null;
+        if (contentType.equals("video/mp4") || contentType.equals("video/quicktime")) {
+            metadata = Mp4Metadata.read(body, maxVideoBytes);
+        }
+        return new Result(true, contentType,
+                metadata != null ? metadata.width : null,
+                metadata != null ? metadata.height : null,
+                metadata != null ? metadata.durationMillis : null,
+                contentLength, null, null);
+    }
+
+    private static byte[] thumbnail(BufferedImage image) throws IOException {
+        double scale = Math.min(1.0, (double) THUMBNAIL_SIZE / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "jpg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Kind of media accepted at a URL
+     */
+    public enum MediaKind {
+        IMAGE,
+        VIDEO;
+
+        static MediaKind of(String contentType) {
+            if (contentType.startsWith("image/")) {
+                return IMAGE;
+            }
+            if (contentType.startsWith("video/")) {
+                return VIDEO;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * What a probe found out about a media URL; only valid results carry metadata
+     */
+    public record Result(
+            boolean valid,
+            String contentType,
+            Integer width,
+            Integer height,
+            Long durationMillis,
+            Long sizeBytes,
+            String thumbnailUrl,
+            String failureReason) {
+
+        static Result failed(String reason) {
+            return new Result(false, null, null, null, null, null, null, reason);
+        }
+    }
+
+    private static final class RejectedUrlException extends Exception {
+        RejectedUrlException(String message) {
+            super(message);
+        }
+    }
+
+    // Thrown from the resolver, whose contract only allows UnknownHostException
+    private static final class PrivateHostException extends UnknownHostException {
+        PrivateHostException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Fails reads once a deadline has passed
+     * Every read also blocks for at most the socket timeout, so a download never runs much past the
+     * deadline however slowly the server sends.
+     */
+    private static final class DeadlineInputStream extends FilterInputStream {
+
+        private final long deadline;
+
+        DeadlineInputStream(InputStream in, long deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            return super.skip(n);
+        }
+
+        private void checkDeadline() throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("download took longer than the fetch deadline");
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.celebstash.backend.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the duration and frame size of an MP4 or QuickTime file from its movie header.
+ * Top-level boxes are streamed and skipped until the moov box, so media data is never buffered.
+ */
+final class Mp4Metadata {
+
+    // A moov box larger than this is not worth buffering just for its headers
+    private static final int MAX_MOOV_BYTES = 16 * 1024 * 1024;
+
+    final Integer width;
+    final Integer height;
+    final Long durationMillis;
+
+    private Mp4Metadata(Integer width, Integer height, Long durationMillis) {
+        this.width = width;
+        this.height = height;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Read the metadata of a stream positioned at the start of the file
+     * @param in the stream
+     * @param maxBytes how far into the file to look for the movie header
+     * @return the metadata, or null if no movie header was found in time
+     * @throws IOException if the stream fails
+     */
+    static Mp4Metadata read(InputStream in, long maxBytes) throws IOException {
+        long position = 0;
+        byte[] header = new byte[8];
+
+        while (position < maxBytes) {
+            if (in.readNBytes(header, 0, 8) < 8) {
+                return null;
+            }
+            long size = ByteBuffer.wrap(header, 0, 4).getInt() & 0xFFFFFFFFL;
+            String type = new String(header, 4, 4, StandardCharsets.ISO_8859_1);
+            int headerLength = 8;
+
+            if (size == 1) {
+                byte[] largeSize = in.readNBytes(8);
+                if (largeSize.length < 8) {
+                    return null;
+                }
+                size = ByteBuffer.wrap(largeSize).getLong();
+                headerLength = 16;
+            } else if (size == 0 && !type.equals("moov")) {
+                // Box runs to the end of the file
+                return null;
+            }
+
+            long payload = size == 0 ? MAX_MOOV_BYTES : size - headerLength;
+            if (payload < 0) {
+                return null;
+            }
+            if (type.equals("moov")) {
+                if (payload > MAX_MOOV_BYTES) {
+                    return null;
+                }
+                return parseMoov(ByteBuffer.wrap(in.readNBytes((int) payload)));
+            }
+
+            in.skipNBytes(payload);
+            position += size;
+        }
+        return null;
+    }
+
+    private static Mp4Metadata parseMoov(ByteBuffer moov) {
+        Long durationMillis = null;
+        Integer width = null;
+        Integer height = null;
+
+        while (moov.remaining() >= 8) {
+            int start = moov.position();
+            long size = moov.getInt() & 0xFFFFFFFFL;
+            String type = fourCc(moov);
+            if (size < 8 || start + size > moov.limit()) {
+                break;
+            }
+            ByteBuffer box = moov.slice(start + 8, (int) size - 8);
+
+            if (type.equals("mvhd")) {
+                durationMillis = parseMvhd(box);
+            } else if (type.equals("trak") && width == null) {
+                int[] dimensions = parseTrak(box);
+                if (dimensions != null) {
+                    width = dimensions[0];
+                    height = dimensions[1];
+                }
+            }
+            moov.position(start + (int) size);
+        }
+        return new Mp4Metadata(width, height, durationMillis);
+    }
+
+    private static Long parseMvhd(ByteBuffer mvhd) {
+        int version = mvhd.get() & 0xFF;
+        mvhd.position(4);
+        long timescale;
+        long duration;
+        if (version == 1) {
+            mvhd.position(mvhd.position() + 16);
+            timescale = mvhd.getInt() & 0xFFFFFFFFL;
+            duration = mvhd.getLong();
+        } else {
+            mvhd.position(mvhd.position() + 8);
+            timescale = mvhd.getInt() & 0xFFFFFFFFL;
+            duration = mvhd.getInt() & 0xFFFFFFFFL;
+        }
+        return timescale == 0 ? null : duration * 1000 / timescale;
+    }
+
+    // Frame size of the first track with one, i.e. the video track
+    private static int[] parseTrak(ByteBuffer trak) {
+        while (trak.remaining() >= 8) {
+            int start = trak.position();
+            long size = trak.getInt() & 0xFFFFFFFFL;
+            String type = fourCc(trak);
+            if (size < 8 || start + size > trak.limit()) {
+                return null;
+            }
+            if (type.equals("tkhd")) {
+                ByteBuffer tkhd = trak.slice(start + 8, (int) size - 8);
+                int version = tkhd.get() & 0xFF;
+                // Skip flags, times, track ID, reserved, duration, reserved, layer, group, volume, reserved and matrix
+                int offset = 4 + (version == 1 ? 32 : 20) + 8 + 8 + 36;
+                if (tkhd.limit() < offset + 8) {
+                    return null;
+                }
+                int width = tkhd.getInt(offset) >>> 16;
+                int height = tkhd.getInt(offset + 4) >>> 16;
+                return width > 0 && height > 0 ? new int[] {width, height} : null;
+            }
+            trak.position(start + (int) size);
+        }
+        return null;
+    }
+
+    private static String fourCc(ByteBuffer buffer) {
+        byte[] type = new byte[4];
+        buffer.get(type);
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+}
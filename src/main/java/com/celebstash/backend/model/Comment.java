@@ -38,14 +38,6 @@ public class Comment {
 
     private LocalDateTime updatedAt;
 
-    @ManyToMany
-    @JoinTable(
-        name = "comment_likes",
-        joinColumns = @JoinColumn(name = "comment_id"),
-        inverseJoinColumns = @JoinColumn(name = "user_id")
-    )
-    private Set<User> likedBy = new HashSet<>();
-
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Comment parent;
@@ -63,26 +55,10 @@ public class Comment {
         updatedAt = LocalDateTime.now();
     }
 
-    public int getLikesCount() {
-        return likedBy.size();
-    }
-
     public int getRepliesCount() {
         return replies.size();
     }
 
-    public boolean isLikedBy(User user) {
-        return likedBy.contains(user);
-    }
-
-    public void addLike(User user) {
-        likedBy.add(user);
-    }
-
-    public void removeLike(User user) {
-        likedBy.remove(user);
-    }
-
     public boolean isReply() {
         return parent != null;
     }
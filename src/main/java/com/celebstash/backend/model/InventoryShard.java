@@ -0,0 +1,36 @@
+package com.celebstash.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One of the stock counters of a product whose inventory is split across several rows.
+ * Buyers of a hot product are spread across its shards, so their stock updates do not all
+ * queue on the same row lock.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "inventory_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inventory_shards_product_id_shard_index",
+                columnNames = {"product_id", "shard_index"}))
+public class InventoryShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,36 @@
+package com.celebstash.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger balance of a wallet up to and including a given entry.
+ * A wallet's balance is derived as the checkpoint balance plus the entries posted after it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_checkpoints")
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private Long lastEntryId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
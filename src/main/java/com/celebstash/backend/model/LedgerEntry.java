@@ -0,0 +1,62 @@
+package com.celebstash.backend.model;
+
+import com.celebstash.backend.model.enums.LedgerAccount;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A single posting in the double-entry ledger.
+ * Entries are append-only: the postings of one journal always sum to zero and are never updated.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Immutable
+@Entity
+@Table(
+    name = "ledger_entries",
+    indexes = {
+        @Index(name = "idx_ledger_entries_wallet_id_id", columnList = "wallet_id, id"),
+        @Index(name = "idx_ledger_entries_journal_id", columnList = "journal_id")
+    }
+)
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false, updatable = false, length = 36)
+    private String journalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LedgerAccount account;
+
+    // Set only for WALLET postings
+    @Column(name = "wallet_id", updatable = false)
+    private Long walletId;
+
+    @Column(name = "transaction_id", updatable = false)
+    private Long transactionId;
+
+    // Signed amount, positive increases the account's balance
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
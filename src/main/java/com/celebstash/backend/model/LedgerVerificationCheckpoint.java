@@ -0,0 +1,34 @@
+package com.celebstash.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a ledger-wide verification, e.g. that every journal balances: all entries up to and
+ * including the given entry have been verified.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_verification_checkpoints")
+public class LedgerVerificationCheckpoint {
+
+    public static final String BALANCED_JOURNALS = "balanced-journals";
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastEntryId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
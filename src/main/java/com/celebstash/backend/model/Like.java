@@ -17,7 +17,12 @@ import java.time.LocalDateTime;
 @Table(
     name = "likes",
     uniqueConstraints = {
+        // Also the index for "which of these does the user like"
         @UniqueConstraint(columnNames = {"user_id", "likeable_type", "likeable_id"})
+    },
+    indexes = {
+        // Covers counting and listing the likes of an item without reading the table
+        @Index(name = "idx_likes_likeable_type_likeable_id_user_id", columnList = "likeable_type, likeable_id, user_id")
     }
 )
 public class Like {
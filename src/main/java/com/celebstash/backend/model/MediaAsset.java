@@ -0,0 +1,86 @@
+package com.celebstash.backend.model;
+
+import com.celebstash.backend.model.enums.MediaRole;
+import com.celebstash.backend.model.enums.MediaStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A media URL of a post or story and what ingestion found out about it.
+ * Exactly one of post and story is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "media_assets",
+    indexes = {
+        @Index(name = "idx_media_assets_post_id", columnList = "post_id"),
+        @Index(name = "idx_media_assets_story_id", columnList = "story_id"),
+        @Index(name = "idx_media_assets_status_created_at", columnList = "status, created_at")
+    }
+)
+public class MediaAsset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id")
+    private Post post;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "story_id")
+    private Story story;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaRole role;
+
+    // Order among the assets of the same role, e.g. the index of a photo
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(name = "source_url", nullable = false, length = 2048)
+    private String sourceUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaStatus status;
+
+    private String contentType;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long durationMillis;
+
+    private Long sizeBytes;
+
+    private String thumbnailUrl;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = MediaStatus.PENDING;
+        }
+    }
+}
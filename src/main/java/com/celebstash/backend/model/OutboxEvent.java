@@ -0,0 +1,69 @@
+package com.celebstash.backend.model;
+
+import com.celebstash.backend.model.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event written in the same transaction as the change it describes and delivered later by the relay.
+ * An event whose delivery keeps failing is retried with backoff and parked once it runs out of attempts,
+ * so it never holds up the events behind it; parked events stay in the table until handled by hand.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "outbox_events",
+    indexes = {
+        @Index(name = "idx_outbox_events_published_at_id", columnList = "published_at, id")
+    }
+)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType type;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload; // JSON
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // Failed delivery attempts so far
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    // Not claimed again before this time: the lease of the relay delivering it, or the backoff after a failure
+    private LocalDateTime nextAttemptAt;
+
+    // Set when the event ran out of attempts; it is not delivered again
+    private LocalDateTime parkedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,10 +1,13 @@
 package com.celebstash.backend.model;
 
+import com.celebstash.backend.model.enums.MediaStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -36,6 +39,7 @@ public class Post {
     private String videoUrl;
 
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "post_photos", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "photo_url", nullable = false)
     private List<String> photoUrls = new ArrayList<>();
@@ -48,17 +52,23 @@ public class Post {
 
     private LocalDateTime updatedAt;
 
+    // Denormalized counts, changed only through atomic updates in PostRepository and reconciled
+    // nightly against the likes, comments and shares; not updatable so saving a post can never overwrite them
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int likesCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int commentsCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int sharesCount;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments = new ArrayList<>();
 
-    @ManyToMany
-    @JoinTable(
-        name = "post_likes",
-        joinColumns = @JoinColumn(name = "post_id"),
-        inverseJoinColumns = @JoinColumn(name = "user_id")
-    )
-    private Set<User> likedBy = new HashSet<>();
-
     @ManyToMany
     @JoinTable(
         name = "post_shares",
@@ -67,6 +77,16 @@ public class Post {
     )
     private Set<User> sharedBy = new HashSet<>();
 
+    // Null for posts created before media ingestion existed
+    @Enumerated(EnumType.STRING)
+    private MediaStatus mediaStatus;
+
+    @OneToMany(mappedBy = "post")
+    @OrderBy("role ASC, position ASC")
+    @BatchSize(size = 50)
+    @Builder.Default
+    private List<MediaAsset> media = new ArrayList<>();
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -77,30 +97,6 @@ public class Post {
         updatedAt = LocalDateTime.now();
     }
 
-    public int getLikesCount() {
-        return likedBy.size();
-    }
-
-    public int getCommentsCount() {
-        return comments.size();
-    }
-
-    public int getSharesCount() {
-        return sharedBy.size();
-    }
-
-    public boolean isLikedBy(User user) {
-        return likedBy.contains(user);
-    }
-
-    public void addLike(User user) {
-        likedBy.add(user);
-    }
-
-    public void removeLike(User user) {
-        likedBy.remove(user);
-    }
-
     public void addShare(User user) {
         sharedBy.add(user);
     }
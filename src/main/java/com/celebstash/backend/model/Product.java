@@ -16,7 +16,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@Table(
+    name = "products",
+    indexes = {
+        @Index(name = "idx_products_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_products_status_price_id", columnList = "status, price, id"),
+        @Index(name = "idx_products_status_type_created_at_id", columnList = "status, product_type, created_at, id"),
+        @Index(name = "idx_products_seller_id_created_at_id", columnList = "seller_id, created_at, id")
+    }
+)
 public class Product {
 
     @Id
@@ -35,7 +43,11 @@ public class Product {
     private String imageUrl;
 
     @Column(nullable = false)
-    private Integer stockQuantity;
+    private Integer stockQuantity; // while sharded, the total of the shards as of the last rebalance
+
+    // Number of inventory shards holding the stock, 0 if the stock is held in this row
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer inventoryShards;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -78,6 +90,9 @@ public class Product {
         if (status == null) {
             status = ProductStatus.PENDING;
         }
+        if (inventoryShards == null) {
+            inventoryShards = 0;
+        }
     }
 
     @PreUpdate
@@ -1,14 +1,18 @@
 package com.celebstash.backend.model;
 
+import com.celebstash.backend.model.enums.MediaStatus;
 import com.celebstash.backend.model.enums.StoryType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Data
@@ -55,6 +59,16 @@ public class Story {
     )
     private Set<User> viewedBy = new HashSet<>();
 
+    // Null for stories created before media ingestion existed
+    @Enumerated(EnumType.STRING)
+    private MediaStatus mediaStatus;
+
+    @OneToMany(mappedBy = "story")
+    @OrderBy("role ASC, position ASC")
+    @BatchSize(size = 50)
+    @Builder.Default
+    private List<MediaAsset> media = new ArrayList<>();
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -16,7 +16,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Table(
+    name = "transactions",
+    indexes = {
+        @Index(name = "idx_transactions_wallet_id_created_at_id", columnList = "wallet_id, created_at, id"),
+        @Index(name = "idx_transactions_product_id_type", columnList = "product_id, type")
+    }
+)
 public class Transaction {
 
     @Id
@@ -51,6 +57,10 @@ public class Transaction {
 
     private LocalDateTime completedAt;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
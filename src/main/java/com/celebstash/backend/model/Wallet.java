@@ -28,6 +28,10 @@ public class Wallet {
     @Column(nullable = false)
     private BigDecimal balance;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,12 @@
+package com.celebstash.backend.model.enums;
+
+/**
+ * Enum representing the account a ledger entry is posted to
+ */
+public enum LedgerAccount {
+    WALLET,           // A user's wallet, identified by the entry's wallet ID
+    EXTERNAL_FUNDS,   // Money entering the platform through top-ups
+    BID_ESCROW,       // Funds held for pending bids
+    SALES,            // Money paid for purchases and won auctions
+    OPENING_BALANCE   // Balances that existed before the ledger was introduced
+}
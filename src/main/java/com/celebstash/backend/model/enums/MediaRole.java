@@ -0,0 +1,10 @@
+package com.celebstash.backend.model.enums;
+
+/**
+ * Enum representing what a media asset is used for
+ */
+public enum MediaRole {
+    VIDEO,      // The video of a post
+    PHOTO,      // One of the photos of a post
+    STORY       // The media of a story
+}
@@ -0,0 +1,10 @@
+package com.celebstash.backend.model.enums;
+
+/**
+ * Enum representing the progress of media ingestion for a post, story or single media asset
+ */
+public enum MediaStatus {
+    PENDING,    // Waiting to be fetched and inspected
+    READY,      // Fetched, validated and described
+    FAILED      // Unreachable, too large or not the expected kind of media
+}
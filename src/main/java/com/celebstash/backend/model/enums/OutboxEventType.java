@@ -0,0 +1,15 @@
+package com.celebstash.backend.model.enums;
+
+/**
+ * Enum representing the type of an event recorded in the outbox
+ */
+public enum OutboxEventType {
+    WALLET_TOPPED_UP,           // Funds added to a wallet, aggregate is the wallet
+    WALLET_PURCHASE_PAID,       // Purchase paid from a wallet, aggregate is the wallet
+    WALLET_BID_RESERVED,        // Funds reserved for a bid, aggregate is the wallet
+    WALLET_BID_REFUNDED,        // Reserved bid funds returned, aggregate is the wallet
+    AUCTION_WON,                // Auction ended with a winner, aggregate is the product
+    AUCTION_LOST,               // Auction ended for a losing bidder, aggregate is the product
+    CART_ABANDONED,             // Items of an inactive cart were removed, aggregate is the cart
+    PRODUCT_STATUS_CHANGED      // A product was approved or rejected, aggregate is the product
+}
@@ -0,0 +1,32 @@
+package com.celebstash.backend.model.redis;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A cart line as stored in the Redis cart hash, with a snapshot of the product taken when it was added
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine implements Serializable {
+
+    private Long productId;
+
+    private String productName;
+
+    private String productDescription;
+
+    private String productImageUrl;
+
+    private Long unitPriceCents; // price in minor units when the product was added or last updated
+
+    @JsonIgnore
+    private Integer quantity; // stored in its own hash field so it can be incremented atomically
+}
@@ -0,0 +1,40 @@
+package com.celebstash.backend.model.redis;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Serializable {
+
+    private String fingerprint; // SHA-256 of the request body
+
+    private String replayFingerprint; // SHA-256 of the request as read after completion, if it changed
+
+    private Status status;
+
+    private String claimToken; // Random token of the request holding the claim, until completed
+
+    private String responseBody; // JSON of the response, set once completed
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    @JsonIgnore
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    public static String generateKey(String scope, String principal, String idempotencyKey) {
+        return String.format("idempotency:%s:%s:%s", scope, principal, idempotencyKey);
+    }
+}
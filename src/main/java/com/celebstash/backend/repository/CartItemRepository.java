@@ -1,11 +1,16 @@
 package com.celebstash.backend.repository;
 
+import com.celebstash.backend.dto.cart.CartLineView;
 import com.celebstash.backend.model.Cart;
 import com.celebstash.backend.model.CartItem;
 import com.celebstash.backend.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +20,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Find all items in a cart
     List<CartItem> findByCart(Cart cart);
     
+    // Find all items in a cart with the product fields needed to render them, in one query
+    @Query("SELECT new com.celebstash.backend.dto.cart.CartLineView(" +
+           "p.id, p.name, p.description, p.imageUrl, p.price, ci.quantity) " +
+           "FROM CartItem ci JOIN ci.product p WHERE ci.cart.id = :cartId ORDER BY p.id")
+    List<CartLineView> findLinesByCartId(@Param("cartId") Long cartId);
+
     // Find a specific product in a cart
     Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
     
@@ -24,6 +35,17 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Delete all items in a cart
     void deleteByCart(Cart cart);
     
+    // Delete all items in a cart in one statement
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") Long cartId);
+
+    // Delete all items of the given carts that are still unchanged since the cutoff, in one statement
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id IN (SELECT c.id FROM Cart c " +
+           "WHERE c.id IN :cartIds AND COALESCE(c.updatedAt, c.createdAt) < :cutoff)")
+    int deleteAllOfAbandonedCarts(@Param("cartIds") List<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
+
     // Delete a specific product from a cart
     void deleteByCartAndProduct(Cart cart, Product product);
 }
\ No newline at end of file
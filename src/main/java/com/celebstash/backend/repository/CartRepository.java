@@ -1,10 +1,17 @@
 package com.celebstash.backend.repository;
 
+import com.celebstash.backend.dto.cart.AbandonedCart;
 import com.celebstash.backend.model.Cart;
 import com.celebstash.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +20,35 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     // Find cart by user
     Optional<Cart> findByUser(User user);
     
+    // Find cart by user ID without joining the user
+    Optional<Cart> findByUserId(Long userId);
+
     // Check if a cart exists for a user
     boolean existsByUser(User user);
+
+    // Find carts with items that have not changed since the cutoff, in ID order after the given cart
+    @Query("SELECT new com.celebstash.backend.dto.cart.AbandonedCart(c.id, c.user.id, COALESCE(c.updatedAt, c.createdAt)) " +
+           "FROM Cart c WHERE c.id > :afterCartId " +
+           "AND (c.updatedAt < :cutoff OR (c.updatedAt IS NULL AND c.createdAt < :cutoff)) " +
+           "AND EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart = c) " +
+           "ORDER BY c.id")
+    List<AbandonedCart> findAbandoned(@Param("afterCartId") Long afterCartId,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      Pageable pageable);
+
+    // Record that a cart changed
+    @Modifying
+    @Query("UPDATE Cart c SET c.updatedAt = :now WHERE c.id = :cartId")
+    int touch(@Param("cartId") Long cartId, @Param("now") LocalDateTime now);
+
+    // Create empty carts for the users in an ID range that do not have one, returns the number of carts created
+    @Modifying
+    @Query(value = "INSERT INTO carts (user_id, created_at) " +
+                   "SELECT u.id, :now FROM users u " +
+                   "WHERE u.id > :afterUserId AND u.id <= :upToUserId " +
+                   "AND NOT EXISTS (SELECT 1 FROM carts c WHERE c.user_id = u.id)",
+           nativeQuery = true)
+    int insertMissingForUsers(@Param("afterUserId") Long afterUserId,
+                              @Param("upToUserId") Long upToUserId,
+                              @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -42,11 +42,13 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     Page<Comment> findByParent(Comment parent, Pageable pageable);
     
     // Find all comments liked by a specific user
-    @Query("SELECT c FROM Comment c JOIN c.likedBy l WHERE l = :user")
+    @Query("SELECT c FROM Comment c WHERE c.id IN (SELECT l.likeableId FROM Like l " +
+           "WHERE l.user = :user AND l.likeableType = com.celebstash.backend.model.enums.LikeableType.COMMENT)")
     List<Comment> findCommentsLikedBy(@Param("user") User user);
     
     // Find all comments liked by a specific user with pagination
-    @Query("SELECT c FROM Comment c JOIN c.likedBy l WHERE l = :user")
+    @Query("SELECT c FROM Comment c WHERE c.id IN (SELECT l.likeableId FROM Like l " +
+           "WHERE l.user = :user AND l.likeableType = com.celebstash.backend.model.enums.LikeableType.COMMENT)")
     Page<Comment> findCommentsLikedBy(@Param("user") User user, Pageable pageable);
     
     // Count comments by post
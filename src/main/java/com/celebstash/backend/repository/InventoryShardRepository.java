@@ -0,0 +1,37 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.model.InventoryShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long> {
+
+    // Atomically take stock from one shard only if it holds enough, returns 0 otherwise
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventoryShard s SET s.quantity = s.quantity - :quantity " +
+           "WHERE s.productId = :productId AND s.shardIndex = :shardIndex AND s.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId,
+                  @Param("shardIndex") int shardIndex,
+                  @Param("quantity") int quantity);
+
+    // Find all shards of a product
+    List<InventoryShard> findByProductIdOrderByShardIndex(Long productId);
+
+    // Find all shards of a product and lock them, always in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryShard s WHERE s.productId = :productId ORDER BY s.shardIndex")
+    List<InventoryShard> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    // Delete all shards of a product
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM InventoryShard s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,9 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.model.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Long> {
+}
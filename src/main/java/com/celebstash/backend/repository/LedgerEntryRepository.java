@@ -0,0 +1,47 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.dto.ledger.WalletLedgerState;
+import com.celebstash.backend.model.LedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Sum of the entries posted to a wallet after a given entry
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.walletId = :walletId AND e.id > :afterEntryId")
+    BigDecimal sumWalletEntriesAfter(@Param("walletId") Long walletId, @Param("afterEntryId") Long afterEntryId);
+
+    // Check if any entry has been posted to a wallet
+    boolean existsByWalletId(Long walletId);
+
+    // Latest entry ID in the ledger
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM LedgerEntry e")
+    Long findMaxId();
+
+    // Latest ID among the entries created before a given time
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM LedgerEntry e WHERE e.createdAt < :cutoff")
+    Long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Journals touched after a given entry whose postings do not sum to zero
+    @Query("SELECT e.journalId FROM LedgerEntry e " +
+           "WHERE e.journalId IN (SELECT e2.journalId FROM LedgerEntry e2 WHERE e2.id > :afterEntryId AND e2.id <= :upToEntryId) " +
+           "GROUP BY e.journalId HAVING SUM(e.amount) <> 0")
+    List<String> findUnbalancedJournals(@Param("afterEntryId") Long afterEntryId, @Param("upToEntryId") Long upToEntryId);
+
+    // Cached and ledger-derived balances for the next batch of wallets, read in one statement so both sides are consistent
+    @Query("SELECT new com.celebstash.backend.dto.ledger.WalletLedgerState(" +
+           "w.id, w.balance, c.balance, c.lastEntryId, " +
+           "(SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.walletId = w.id AND e.id > COALESCE(c.lastEntryId, 0)), " +
+           "(SELECT MAX(e.id) FROM LedgerEntry e WHERE e.walletId = w.id)) " +
+           "FROM Wallet w LEFT JOIN LedgerCheckpoint c ON c.walletId = w.id " +
+           "WHERE w.id > :afterWalletId ORDER BY w.id")
+    List<WalletLedgerState> findWalletStatesAfter(@Param("afterWalletId") Long afterWalletId, Pageable pageable);
+}
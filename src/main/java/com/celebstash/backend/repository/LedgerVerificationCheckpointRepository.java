@@ -0,0 +1,9 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.model.LedgerVerificationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerVerificationCheckpointRepository extends JpaRepository<LedgerVerificationCheckpoint, String> {
+}
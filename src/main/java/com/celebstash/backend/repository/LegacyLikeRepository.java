@@ -0,0 +1,167 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.model.enums.LikeableType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The post_likes and comment_likes join tables that held post and comment likes before they moved to the
+ * likes table. They are no longer mapped, so they are accessed with plain SQL, and only exist in databases
+ * created before the move. A like is in exactly one of the two places: every statement that copies
+ * legacy likes into the likes table deletes them from the join table in the same transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LegacyLikeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Check whether the join table of a type exists and still holds likes
+     * @param likeableType POST or COMMENT
+     * @return true if there are legacy likes left
+     */
+    public boolean hasLikes(LikeableType likeableType) {
+        Table table = Table.of(likeableType);
+        if (table == null || !tableExists(table.name)) {
+            return false;
+        }
+        return !jdbcTemplate.queryForList("SELECT 1 FROM " + table.name + " FETCH FIRST 1 ROWS ONLY").isEmpty();
+    }
+
+    /**
+     * Delete a like from the join table
+     * @param userId the user ID
+     * @param likeableType POST or COMMENT
+     * @param likeableId the item ID
+     * @return 1 if the like was there, 0 otherwise
+     */
+    public int delete(Long userId, LikeableType likeableType, Long likeableId) {
+        Table table = Table.of(likeableType);
+        return jdbcTemplate.update("DELETE FROM " + table.name + " WHERE user_id = ? AND " + table.idColumn + " = ?",
+                userId, likeableId);
+    }
+
+    /**
+     * Delete all likes of an item from the join table
+     * @param likeableType POST or COMMENT
+     * @param likeableId the item ID
+     * @return number of likes deleted
+     */
+    public int deleteAllOf(LikeableType likeableType, Long likeableId) {
+        Table table = Table.of(likeableType);
+        return jdbcTemplate.update("DELETE FROM " + table.name + " WHERE " + table.idColumn + " = ?", likeableId);
+    }
+
+    /**
+     * Delete all likes of the comments of a post from the comment join table
+     * @param postId the post ID
+     * @return number of likes deleted
+     */
+    public int deleteAllOfCommentsOf(Long postId) {
+        return jdbcTemplate.update("DELETE FROM comment_likes WHERE comment_id IN " +
+                "(SELECT c.id FROM comments c WHERE c.post_id = ?)", postId);
+    }
+
+    /**
+     * Find which of a batch of items a user likes according to the join table
+     * @param userId the user ID
+     * @param likeableType POST or COMMENT
+     * @param likeableIds the item IDs
+     * @return IDs of the liked items
+     */
+    public Set<Long> findLikedIds(Long userId, LikeableType likeableType, Collection<Long> likeableIds) {
+        Table table = Table.of(likeableType);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("likeableIds", likeableIds);
+        return new HashSet<>(new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(
+                "SELECT " + table.idColumn + " FROM " + table.name +
+                " WHERE user_id = :userId AND " + table.idColumn + " IN (:likeableIds)", params, Long.class));
+    }
+
+    /**
+     * Count the likes of an item in the join table
+     * @param likeableType POST or COMMENT
+     * @param likeableId the item ID
+     * @return number of likes
+     */
+    public long count(LikeableType likeableType, Long likeableId) {
+        Table table = Table.of(likeableType);
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table.name + " WHERE " + table.idColumn + " = ?",
+                Long.class, likeableId);
+    }
+
+    /**
+     * Move the first likes of the join table, in key order, to the likes table
+     * The moved rows are locked first, so a concurrent like or unlike of one of them waits for the move.
+     * @param likeableType POST or COMMENT
+     * @param limit the maximum number of likes
+     * @param now the creation time of the copied likes
+     * @return number of likes moved, 0 once the join table is empty
+     */
+    public int moveBatch(LikeableType likeableType, int limit, LocalDateTime now) {
+        Table table = Table.of(likeableType);
+        List<long[]> keys = jdbcTemplate.query(
+                "SELECT " + table.idColumn + ", user_id FROM " + table.name +
+                " ORDER BY " + table.idColumn + ", user_id FETCH FIRST " + limit + " ROWS ONLY FOR UPDATE",
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        // Everything up to the last locked key is exactly the locked rows, since nothing adds to the table
+        long[] last = keys.get(keys.size() - 1);
+        jdbcTemplate.update("INSERT INTO likes (user_id, likeable_type, likeable_id, created_at) " +
+                "SELECT jl.user_id, ?, jl." + table.idColumn + ", ? FROM " + table.name + " jl " +
+                "WHERE " + table.upTo("jl.") + " AND NOT EXISTS (SELECT 1 FROM likes l WHERE l.user_id = jl.user_id " +
+                "AND l.likeable_type = ? AND l.likeable_id = jl." + table.idColumn + ")",
+                likeableType.name(), Timestamp.valueOf(now), last[0], last[0], last[1], likeableType.name());
+        jdbcTemplate.update("DELETE FROM " + table.name + " WHERE " + table.upTo(""), last[0], last[0], last[1]);
+        return keys.size();
+    }
+
+    private boolean tableExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Unquoted names are stored in lower case by some databases and upper case by others
+            for (String candidate : new String[] {name, name.toUpperCase()}) {
+                try (ResultSet tables = metaData.getTables(null, null, candidate, new String[] {"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private record Table(String name, String idColumn) {
+
+        static Table of(LikeableType likeableType) {
+            return switch (likeableType) {
+                case POST -> new Table("post_likes", "post_id");
+                case COMMENT -> new Table("comment_likes", "comment_id");
+                case STORY -> null;
+            };
+        }
+
+        // Keys up to and including a (item ID, user ID) key, for three parameters: item ID twice, then user ID
+        String upTo(String alias) {
+            return "(" + alias + idColumn + " < ? OR (" + alias + idColumn + " = ? AND " + alias + "user_id <= ?))";
+        }
+    }
+}
@@ -6,10 +6,16 @@ import com.celebstash.backend.model.enums.LikeableType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface LikeRepository extends JpaRepository<Like, Long> {
@@ -37,4 +43,41 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     
     // Delete a like by user, likeable type, and likeable ID
     void deleteByUserAndLikeableTypeAndLikeableId(User user, LikeableType likeableType, Long likeableId);
-}
\ No newline at end of file
+
+    // Add a like unless the user already likes the item; returns 0 if the like already exists
+    @Modifying
+    @Query(value = "INSERT INTO likes (user_id, likeable_type, likeable_id, created_at) " +
+                   "SELECT u.id, :likeableType, :likeableId, :now FROM users u WHERE u.id = :userId " +
+                   "AND NOT EXISTS (SELECT 1 FROM likes l " +
+                   "WHERE l.user_id = :userId AND l.likeable_type = :likeableType AND l.likeable_id = :likeableId)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId,
+                       @Param("likeableType") String likeableType,
+                       @Param("likeableId") Long likeableId,
+                       @Param("now") LocalDateTime now);
+
+    // Remove a like by IDs; returns 0 if there was none
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.user.id = :userId AND l.likeableType = :likeableType AND l.likeableId = :likeableId")
+    int deleteByIds(@Param("userId") Long userId,
+                    @Param("likeableType") LikeableType likeableType,
+                    @Param("likeableId") Long likeableId);
+
+    // Remove all likes of an item
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.likeableType = :likeableType AND l.likeableId = :likeableId")
+    int deleteAllOf(@Param("likeableType") LikeableType likeableType, @Param("likeableId") Long likeableId);
+
+    // Find which of a batch of items a user likes, from the unique index alone
+    @Query("SELECT l.likeableId FROM Like l " +
+           "WHERE l.user.id = :userId AND l.likeableType = :likeableType AND l.likeableId IN :likeableIds")
+    Set<Long> findLikedIds(@Param("userId") Long userId,
+                           @Param("likeableType") LikeableType likeableType,
+                           @Param("likeableIds") Collection<Long> likeableIds);
+
+    // Remove all likes of the comments and replies of a post
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.likeableType = com.celebstash.backend.model.enums.LikeableType.COMMENT " +
+           "AND l.likeableId IN (SELECT c.id FROM Comment c WHERE c.post.id = :postId)")
+    int deleteAllOfCommentsOf(@Param("postId") Long postId);
+}
@@ -0,0 +1,57 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.dto.media.PendingMediaAsset;
+import com.celebstash.backend.model.MediaAsset;
+import com.celebstash.backend.model.enums.MediaStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
+
+    // Find the media of a post
+    List<MediaAsset> findByPostIdOrderByRoleAscPositionAsc(Long postId);
+
+    // Find the media of a page of posts in one query
+    List<MediaAsset> findByPostIdInOrderByRoleAscPositionAsc(Collection<Long> postIds);
+
+    // Find the media of a story
+    List<MediaAsset> findByStoryIdOrderByRoleAscPositionAsc(Long storyId);
+
+    // Find the unprocessed media of a post
+    @Query("SELECT new com.celebstash.backend.dto.media.PendingMediaAsset(a.id, a.role, a.sourceUrl, s.type) " +
+           "FROM MediaAsset a LEFT JOIN a.story s WHERE a.post.id = :postId AND a.status = :status ORDER BY a.id")
+    List<PendingMediaAsset> findPendingByPostId(@Param("postId") Long postId, @Param("status") MediaStatus status);
+
+    // Find the unprocessed media of a story
+    @Query("SELECT new com.celebstash.backend.dto.media.PendingMediaAsset(a.id, a.role, a.sourceUrl, s.type) " +
+           "FROM MediaAsset a JOIN a.story s WHERE s.id = :storyId AND a.status = :status ORDER BY a.id")
+    List<PendingMediaAsset> findPendingByStoryId(@Param("storyId") Long storyId, @Param("status") MediaStatus status);
+
+    // Count the media of a post in a given status
+    long countByPostIdAndStatus(Long postId, MediaStatus status);
+
+    // Count the media of a story in a given status
+    long countByStoryIdAndStatus(Long storyId, MediaStatus status);
+
+    // Find posts with media that has been waiting since before a cutoff
+    @Query("SELECT DISTINCT a.post.id FROM MediaAsset a " +
+           "WHERE a.status = :status AND a.createdAt < :before AND a.post IS NOT NULL")
+    List<Long> findPostIdsWithStatusBefore(@Param("status") MediaStatus status,
+                                           @Param("before") LocalDateTime before,
+                                           Pageable pageable);
+
+    // Find stories with media that has been waiting since before a cutoff
+    @Query("SELECT DISTINCT a.story.id FROM MediaAsset a " +
+           "WHERE a.status = :status AND a.createdAt < :before AND a.story IS NOT NULL")
+    List<Long> findStoryIdsWithStatusBefore(@Param("status") MediaStatus status,
+                                            @Param("before") LocalDateTime before,
+                                            Pageable pageable);
+}
@@ -0,0 +1,40 @@
+package com.celebstash.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched writes of the denormalized post counters, with plain JDBC so many posts are updated in one
+ * round trip instead of one statement each
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostCounterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add to the like counts of several posts in one JDBC batch
+     * @param deltas changes by post ID
+     * @return number of posts updated
+     */
+    public int addLikes(Map<Long, Long> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((postId, delta) -> args.add(new Object[] {Math.toIntExact(delta), postId}));
+
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate("UPDATE posts SET likes_count = likes_count + ? WHERE id = ?", args)) {
+            // Some drivers only report that a statement succeeded, not how many rows it changed
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+}
@@ -1,29 +1,50 @@
 package com.celebstash.backend.repository;
 
+import com.celebstash.backend.dto.post.PostPhotoUrl;
+import com.celebstash.backend.dto.product.ProductPostId;
 import com.celebstash.backend.model.Post;
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.MediaStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
+    // Counts the likes of post p, for the queries below
+    String POST_LIKES = "SELECT COUNT(l) FROM Like l " +
+                        "WHERE l.likeableType = com.celebstash.backend.model.enums.LikeableType.POST AND l.likeableId = p.id";
+
     // Find all posts by user
     List<Post> findByUser(User user);
     
+    // Find a page of posts with their authors
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Post> findAll(Pageable pageable);
+
     // Find all posts by user with pagination
+    @EntityGraph(attributePaths = "user")
     Page<Post> findByUser(User user, Pageable pageable);
     
     // Find post by product
     Optional<Post> findByProduct(Product product);
+
+    // Find the post IDs of a batch of products in one query
+    @Query("SELECT new com.celebstash.backend.dto.product.ProductPostId(p.product.id, p.id) " +
+           "FROM Post p WHERE p.product.id IN :productIds")
+    List<ProductPostId> findPostIdsByProductIds(@Param("productIds") Collection<Long> productIds);
     
     // Find all posts by users the current user follows
     @Query("SELECT p FROM Post p WHERE p.user IN :users ORDER BY p.createdAt DESC")
@@ -34,11 +55,13 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     Page<Post> findByUsersOrderByCreatedAtDesc(@Param("users") List<User> users, Pageable pageable);
     
     // Find all posts liked by a specific user
-    @Query("SELECT p FROM Post p JOIN p.likedBy l WHERE l = :user")
+    @Query("SELECT p FROM Post p WHERE p.id IN (SELECT l.likeableId FROM Like l " +
+           "WHERE l.user = :user AND l.likeableType = com.celebstash.backend.model.enums.LikeableType.POST)")
     List<Post> findPostsLikedBy(@Param("user") User user);
     
     // Find all posts liked by a specific user with pagination
-    @Query("SELECT p FROM Post p JOIN p.likedBy l WHERE l = :user")
+    @Query("SELECT p FROM Post p WHERE p.id IN (SELECT l.likeableId FROM Like l " +
+           "WHERE l.user = :user AND l.likeableType = com.celebstash.backend.model.enums.LikeableType.POST)")
     Page<Post> findPostsLikedBy(@Param("user") User user, Pageable pageable);
     
     // Find all posts shared by a specific user
@@ -48,4 +71,40 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     // Find all posts shared by a specific user with pagination
     @Query("SELECT p FROM Post p JOIN p.sharedBy s WHERE s = :user")
     Page<Post> findPostsSharedBy(@Param("user") User user, Pageable pageable);
-}
\ No newline at end of file
+
+    // Set the media status of a post without touching its other columns
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Post p SET p.mediaStatus = :status WHERE p.id = :postId")
+    int updateMediaStatus(@Param("postId") Long postId, @Param("status") MediaStatus status);
+
+    // Find the photo URLs of a page of posts in one query
+    @Query("SELECT new com.celebstash.backend.dto.post.PostPhotoUrl(p.id, photo) " +
+           "FROM Post p JOIN p.photoUrls photo WHERE p.id IN :postIds")
+    List<PostPhotoUrl> findPhotoUrls(@Param("postIds") Collection<Long> postIds);
+
+    // Atomically add to the counters of a post
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :likes, p.commentsCount = p.commentsCount + :comments, " +
+           "p.sharesCount = p.sharesCount + :shares WHERE p.id = :postId")
+    int adjustCounters(@Param("postId") Long postId,
+                       @Param("likes") int likes,
+                       @Param("comments") int comments,
+                       @Param("shares") int shares);
+
+    // Find post IDs in ID order, for batch jobs
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Recount the counters of a batch of posts, touching only the rows that drifted
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Post p SET p.likesCount = (" + POST_LIKES + "), p.commentsCount = SIZE(p.comments), " +
+           "p.sharesCount = SIZE(p.sharedBy) WHERE p.id IN :postIds AND (p.likesCount <> (" + POST_LIKES + ") OR " +
+           "p.commentsCount <> SIZE(p.comments) OR p.sharesCount <> SIZE(p.sharedBy))")
+    int reconcileCounters(@Param("postIds") Collection<Long> postIds);
+
+    // Recount only the comment and share counters of a batch of posts, touching only the rows that drifted
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Post p SET p.commentsCount = SIZE(p.comments), p.sharesCount = SIZE(p.sharedBy) " +
+           "WHERE p.id IN :postIds AND (p.commentsCount <> SIZE(p.comments) OR p.sharesCount <> SIZE(p.sharedBy))")
+    int reconcileCommentAndShareCounters(@Param("postIds") Collection<Long> postIds);
+}
@@ -1,24 +1,80 @@
 package com.celebstash.backend.repository;
 
+import com.celebstash.backend.dto.product.ProductPopularity;
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.User;
 import com.celebstash.backend.model.enums.ProductStatus;
 import com.celebstash.backend.model.enums.ProductType;
+import com.celebstash.backend.model.enums.TransactionType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    // Find all products with the seller and current bidder fetched in the same query
+    @EntityGraph(attributePaths = {"seller", "currentBidder"})
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllWithUsers();
+
+    // Find a product with the seller and current bidder fetched in the same query
+    @EntityGraph(attributePaths = {"seller", "currentBidder"})
+    Optional<Product> findWithUsersById(Long id);
 
     // Find all products with a specific status
+    @EntityGraph(attributePaths = {"seller", "currentBidder"})
     List<Product> findByStatus(ProductStatus status);
 
     // Find all products by seller
+    @EntityGraph(attributePaths = {"seller", "currentBidder"})
     List<Product> findBySeller(User seller);
 
+    // Find a batch of products with a specific status after a product ID, with the seller fetched in the same query
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+    List<Product> findBatchByStatusWithSeller(@Param("status") ProductStatus status,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    // Find a batch of products with a specific status after a product ID, with their seller and number of orders of the given types
+    @Query("SELECT new com.celebstash.backend.dto.product.ProductPopularity(p.id, p.name, s.id, s.fullName, " +
+           "(SELECT COUNT(t) FROM Transaction t WHERE t.product = p AND t.type IN :orderTypes)) " +
+           "FROM Product p JOIN p.seller s WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+    List<ProductPopularity> findPopularityBatch(@Param("status") ProductStatus status,
+                                                @Param("orderTypes") Collection<TransactionType> orderTypes,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    // Find products by ID with the seller and current bidder fetched in the same query
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller LEFT JOIN FETCH p.currentBidder WHERE p.id IN :ids")
+    List<Product> findAllWithUsersByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set the status of products in one statement; approvedAt is only overwritten when a time is given
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.status = :status, p.approvedAt = COALESCE(:approvedAt, p.approvedAt), " +
+           "p.updatedAt = :now WHERE p.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") ProductStatus status,
+                     @Param("approvedAt") LocalDateTime approvedAt,
+                     @Param("now") LocalDateTime now);
+
+    // Find products by ID and lock their rows, in ID order so concurrent batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
     // Find all products by seller and status
     List<Product> findBySellerAndStatus(User seller, ProductStatus status);
 
@@ -28,6 +84,50 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find all products by product type and status
     List<Product> findByProductTypeAndStatus(ProductType productType, ProductStatus status);
 
+    // Find all products by product type and status with the current bidder fetched in the same query
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currentBidder WHERE p.productType = :productType AND p.status = :status")
+    List<Product> findByProductTypeAndStatusWithBidder(@Param("productType") ProductType productType,
+                                                       @Param("status") ProductStatus status);
+
+    // Find all auctions that have not ended yet, with the current bidder fetched in the same query
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currentBidder " +
+           "WHERE p.productType = :productType AND p.status = :status " +
+           "AND (p.bidEndTime IS NULL OR p.bidEndTime > :now)")
+    List<Product> findOpenAuctionsWithBidder(@Param("productType") ProductType productType,
+                                             @Param("status") ProductStatus status,
+                                             @Param("now") LocalDateTime now);
+
     // Find all bidding products with an end time before the given time
     List<Product> findByProductTypeAndBidEndTimeBefore(ProductType productType, LocalDateTime endTime);
+
+    // Atomically take stock of a purchasable, unsharded product only if enough remains, returns 0 otherwise
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now " +
+           "WHERE p.id = :productId AND p.productType = :productType AND p.status = :status " +
+           "AND p.inventoryShards = 0 AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId,
+                       @Param("quantity") int quantity,
+                       @Param("productType") ProductType productType,
+                       @Param("status") ProductStatus status,
+                       @Param("now") LocalDateTime now);
+
+    // Find a product by ID and lock its row until the end of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    // Find the stock a product has left: its own counter, or the total of its shards when sharded
+    @Query("SELECT CASE WHEN p.inventoryShards = 0 THEN CAST(p.stockQuantity AS Long) " +
+           "ELSE (SELECT COALESCE(SUM(s.quantity), 0) FROM InventoryShard s WHERE s.productId = p.id) END " +
+           "FROM Product p WHERE p.id = :productId")
+    Optional<Long> findAvailableStock(@Param("productId") Long productId);
+
+    // Find the IDs of all products whose stock is sharded
+    @Query("SELECT p.id FROM Product p WHERE p.inventoryShards > 0 ORDER BY p.id")
+    List<Long> findShardedProductIds();
+
+    // Set the displayed stock of a sharded product to the total of its shards
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = :stockQuantity WHERE p.id = :productId AND p.inventoryShards > 0")
+    int updateShardedStockQuantity(@Param("productId") Long productId, @Param("stockQuantity") int stockQuantity);
 }
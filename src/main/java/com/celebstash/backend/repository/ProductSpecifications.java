@@ -0,0 +1,79 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Building blocks of product catalog queries
+ * Every filter is only added when set, so each query uses the most specific composite index.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Fetch the seller and current bidder with the products
+    public static Specification<Product> fetchUsers() {
+        return (root, query, cb) -> {
+            if (query.getResultType() == Product.class) {
+                root.fetch("seller", JoinType.INNER);
+                root.fetch("currentBidder", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Product> hasStatus(ProductStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Product> hasType(ProductType productType) {
+        return (root, query, cb) -> cb.equal(root.get("productType"), productType);
+    }
+
+    public static Specification<Product> hasSeller(Long sellerId) {
+        return (root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    // Products after the given one in newest-first order
+    public static Specification<Product> createdBefore(LocalDateTime createdAt, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+
+    // Products after the given one in oldest-first order
+    public static Specification<Product> createdAfter(LocalDateTime createdAt, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.greaterThan(root.get("id"), id)));
+    }
+
+    // Products after the given one in cheapest-first order
+    public static Specification<Product> pricedAbove(BigDecimal price, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("price"), price),
+                cb.and(cb.equal(root.get("price"), price), cb.greaterThan(root.get("id"), id)));
+    }
+
+    // Products after the given one in most-expensive-first order
+    public static Specification<Product> pricedBelow(BigDecimal price, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("price"), price),
+                cb.and(cb.equal(root.get("price"), price), cb.lessThan(root.get("id"), id)));
+    }
+}
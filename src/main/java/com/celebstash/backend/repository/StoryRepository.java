@@ -3,7 +3,9 @@ package com.celebstash.backend.repository;
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.Story;
 import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.MediaStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -39,4 +41,9 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
     // Find all stories not viewed by a specific user and not expired
     @Query("SELECT s FROM Story s WHERE s.expiresAt > :now AND :user NOT MEMBER OF s.viewedBy")
     List<Story> findStoriesNotViewedBy(@Param("user") User user, @Param("now") LocalDateTime now);
-}
\ No newline at end of file
+
+    // Set the media status of a story without touching its other columns
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Story s SET s.mediaStatus = :status WHERE s.id = :storyId")
+    int updateMediaStatus(@Param("storyId") Long storyId, @Param("status") MediaStatus status);
+}
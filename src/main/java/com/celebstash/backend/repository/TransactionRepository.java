@@ -5,10 +5,19 @@ import com.celebstash.backend.model.Transaction;
 import com.celebstash.backend.model.Wallet;
 import com.celebstash.backend.model.enums.TransactionStatus;
 import com.celebstash.backend.model.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -28,6 +37,35 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Find all transactions for a wallet ordered by creation date (newest first)
     List<Transaction> findByWalletOrderByCreatedAtDesc(Wallet wallet);
 
+    // Find the newest transactions for a wallet with their products, first page of the keyset pagination
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.product WHERE t.wallet = :wallet " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPageByWallet(@Param("wallet") Wallet wallet, Pageable pageable);
+
+    // Find the transactions for a wallet older than the given (createdAt, id) cursor with their products
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.product WHERE t.wallet = :wallet " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPageByWalletBefore(@Param("wallet") Wallet wallet,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    // Stream all transactions for a wallet with their products, newest first, fetching rows in chunks
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.product WHERE t.wallet = :wallet " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<Transaction> streamByWallet(@Param("wallet") Wallet wallet);
+
     // Find all transactions for a product with a specific type and status
     List<Transaction> findByProductAndTypeAndStatus(Product product, TransactionType type, TransactionStatus status);
+
+    // Atomically move a transaction from one status to another, returns 0 if it is no longer in the expected status
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = :to, t.completedAt = :now, t.updatedAt = :now, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status = :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") TransactionStatus from,
+                         @Param("to") TransactionStatus to,
+                         @Param("now") LocalDateTime now);
 }
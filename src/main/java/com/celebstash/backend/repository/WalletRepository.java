@@ -1,10 +1,21 @@
 package com.celebstash.backend.repository;
 
+import com.celebstash.backend.dto.wallet.WalletView;
 import com.celebstash.backend.model.User;
 import com.celebstash.backend.model.Wallet;
+import com.celebstash.backend.model.enums.TransactionStatus;
+import com.celebstash.backend.model.enums.TransactionType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +24,52 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     // Find wallet by user
     Optional<Wallet> findByUser(User user);
     
+    // Find wallet by user ID, fetching the owner in the same query
+    @EntityGraph(attributePaths = "user")
+    Optional<Wallet> findByUserId(Long userId);
+
     // Check if a wallet exists for a user
     boolean existsByUser(User user);
-}
\ No newline at end of file
+
+    // Create empty wallets for the users in an ID range that do not have one, returns the number of wallets created
+    @Modifying
+    @Query(value = "INSERT INTO wallets (user_id, balance, version, created_at) " +
+                   "SELECT u.id, 0, 0, :now FROM users u " +
+                   "WHERE u.id > :afterUserId AND u.id <= :upToUserId " +
+                   "AND NOT EXISTS (SELECT 1 FROM wallets w WHERE w.user_id = u.id)",
+           nativeQuery = true)
+    int insertMissingForUsers(@Param("afterUserId") Long afterUserId,
+                              @Param("upToUserId") Long upToUserId,
+                              @Param("now") LocalDateTime now);
+
+    // Load the read model of a user's wallet, with the owner's name and the funds held by pending bids, in one query
+    @Query("SELECT new com.celebstash.backend.dto.wallet.WalletView(" +
+           "w.id, u.id, u.fullName, w.balance, " +
+           "(SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.wallet = w AND t.type = :holdType AND t.status = :holdStatus), " +
+           "w.createdAt, w.updatedAt) " +
+           "FROM Wallet w JOIN w.user u WHERE u.id = :userId")
+    Optional<WalletView> findViewByUserId(@Param("userId") Long userId,
+                                          @Param("holdType") TransactionType holdType,
+                                          @Param("holdStatus") TransactionStatus holdStatus);
+
+    // Read the current balance of a wallet from the database
+    @Query("SELECT w.balance FROM Wallet w WHERE w.id = :id")
+    BigDecimal findBalanceById(@Param("id") Long id);
+
+    // Find a wallet by ID and lock its row until the end of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    // Atomically add funds to a wallet, returns the number of updated rows
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = w.version + 1, w.updatedAt = :now " +
+           "WHERE w.id = :walletId")
+    int credit(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    // Atomically remove funds from a wallet only if the balance covers the amount, returns 0 otherwise
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.version = w.version + 1, w.updatedAt = :now " +
+           "WHERE w.id = :walletId AND w.balance >= :amount")
+    int debit(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,75 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.service.AccountProvisioningService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One-off job creating the wallets and carts of users that signed up before they were provisioned at signup.
+ * Enabled with app.backfill.accounts.enabled=true; runs on its own thread once the application is up, so
+ * startup is not held up, and is safe to run repeatedly, since users that already have a wallet or cart
+ * are skipped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.backfill.accounts.enabled", havingValue = "true")
+public class AccountBackfillJob {
+
+    private static final long BATCH_SIZE = 1000;
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 100;
+
+    private final AccountProvisioningService accountProvisioningService;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "account-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AccountBackfillJob(AccountProvisioningService accountProvisioningService) {
+        this.accountProvisioningService = accountProvisioningService;
+    }
+
+    /**
+     * Start the backfill once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::backfill);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Walk all users in ID ranges of {@link #BATCH_SIZE}, committing each range separately
+     */
+    void backfill() {
+        try {
+            long maxUserId = accountProvisioningService.getMaxUserId();
+            log.info("Backfilling wallets and carts for users up to ID {}...", maxUserId);
+
+            long created = 0;
+            for (long afterUserId = 0; afterUserId < maxUserId; afterUserId += BATCH_SIZE) {
+                created += accountProvisioningService.backfill(afterUserId, Math.min(afterUserId + BATCH_SIZE, maxUserId));
+                // Leave room for regular traffic between batches
+                Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+            }
+
+            log.info("Account backfill created {} wallets and carts", created);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Account backfill interrupted; rerun it to finish");
+        } catch (RuntimeException e) {
+            log.error("Account backfill failed; rerun it to finish", e);
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.celebstash.backend.scheduler;
 
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.Transaction;
+import com.celebstash.backend.model.enums.OutboxEventType;
 import com.celebstash.backend.model.enums.ProductType;
 import com.celebstash.backend.model.enums.TransactionStatus;
 import com.celebstash.backend.model.enums.TransactionType;
 import com.celebstash.backend.repository.ProductRepository;
 import com.celebstash.backend.repository.TransactionRepository;
+import com.celebstash.backend.service.AuctionSnapshotService;
+import com.celebstash.backend.service.LedgerService;
+import com.celebstash.backend.service.OutboxService;
 import com.celebstash.backend.service.WalletService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
@@ -25,6 +30,9 @@ public class BidScheduler {
     private final ProductRepository productRepository;
     private final WalletService walletService;
     private final TransactionRepository transactionRepository;
+    private final AuctionSnapshotService auctionSnapshotService;
+    private final LedgerService ledgerService;
+    private final OutboxService outboxService;
 
     /**
      * Check for completed bids every minute
@@ -47,6 +55,7 @@ public class BidScheduler {
         // Process each completed bid
         for (Product product : completedBids) {
             processCompletedBid(product);
+            auctionSnapshotService.evict(product.getId());
         }
     }
 
@@ -69,20 +78,29 @@ public class BidScheduler {
             for (Transaction transaction : bidTransactions) {
                 // If this is the winner's transaction, mark it as completed
                 if (transaction.getWallet().getUser().getId().equals(product.getCurrentBidder().getId())) {
-                    transaction.setStatus(TransactionStatus.COMPLETED);
-                    transaction.setCompletedAt(LocalDateTime.now());
-                    transactionRepository.save(transaction);
+                    int settled = transactionRepository.transitionStatus(transaction.getId(),
+                            TransactionStatus.PENDING, TransactionStatus.COMPLETED, LocalDateTime.now());
+                    if (settled == 1) {
+                        ledgerService.recordBidSettlement(transaction.getAmount(), transaction.getId());
+                        outboxService.record(OutboxEventType.AUCTION_WON, product.getId(), Map.of(
+                                "productId", product.getId(),
+                                "userId", product.getCurrentBidder().getId(),
+                                "amount", transaction.getAmount()));
+                    }
 
                     log.info("Completed bid transaction for winner: {}", transaction.getId());
                 } else {
                     // For losers, refund their bid amount
                     walletService.refundBid(transaction.getId());
+                    outboxService.record(OutboxEventType.AUCTION_LOST, product.getId(), Map.of(
+                            "productId", product.getId(),
+                            "userId", transaction.getWallet().getUser().getId(),
+                            "refundedAmount", transaction.getAmount()));
                     log.info("Refunded bid for user: {}", transaction.getWallet().getUser().getId());
                 }
             }
 
-            // TODO: Send notification to winner
-            // TODO: Send notifications to losers
+            // Winner and loser notifications consume the AUCTION_WON/AUCTION_LOST outbox events
             // TODO: Move product to a "completed bids" section or mark it as sold
         } else {
             log.info("Bid completed for product {} with no bids", product.getId());
@@ -0,0 +1,117 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.dto.cart.AbandonedCart;
+import com.celebstash.backend.service.CartService;
+import com.celebstash.backend.service.CartStoreService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes the items of carts nobody has touched for longer than a Redis cart lives, so cart_items
+ * does not grow forever. Cart rows are kept, since every user owns exactly one cart. Sweeps pause between
+ * batches, so they run on a thread of their own rather than holding a scheduler thread.
+ */
+@Slf4j
+@Component
+public class CartSweeperScheduler {
+
+    // Past the Redis TTL, so no live cart hash still holds the items being removed
+    private static final Duration ABANDONED_AFTER = CartStoreService.CART_TTL.plusDays(1);
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_BATCHES_PER_RUN = 200;
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 200;
+
+    private final CartService cartService;
+    private final boolean publishEvents;
+    private final Counter cartsSwept;
+    private final Counter itemsReclaimed;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CartSweeperScheduler(CartService cartService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cart.sweeper.publish-events:false}") boolean publishEvents) {
+        this.cartService = cartService;
+        this.publishEvents = publishEvents;
+        this.cartsSwept = Counter.builder("cart.sweeper.carts")
+                .description("Abandoned carts whose items were removed")
+                .register(meterRegistry);
+        this.itemsReclaimed = Counter.builder("cart.sweeper.items.reclaimed")
+                .description("Cart item rows removed from abandoned carts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start a sweep of abandoned carts every hour, unless the previous one is still running
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void startSweep() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Previous cart sweep still running, skipping this one");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                sweep();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Cart sweep interrupted");
+            } catch (RuntimeException e) {
+                log.error("Cart sweep failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sweep abandoned carts
+     * Works through the carts in ID order, one short transaction per batch with a pause in between,
+     * and stops after a bounded number of batches; the next run continues with whatever is left.
+     */
+    void sweep() throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ABANDONED_AFTER);
+        Long afterCartId = 0L;
+        int carts = 0;
+        int items = 0;
+
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            List<AbandonedCart> abandoned = cartService.findAbandonedCarts(afterCartId, cutoff, BATCH_SIZE);
+            if (abandoned.isEmpty()) {
+                break;
+            }
+
+            int removed = cartService.removeAbandonedItems(abandoned, cutoff, publishEvents);
+            carts += abandoned.size();
+            items += removed;
+            cartsSwept.increment(abandoned.size());
+            itemsReclaimed.increment(removed);
+            afterCartId = abandoned.get(abandoned.size() - 1).cartId();
+
+            Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+        }
+
+        log.info("Cart sweep removed {} items from {} carts inactive since {}", items, carts, cutoff);
+    }
+}
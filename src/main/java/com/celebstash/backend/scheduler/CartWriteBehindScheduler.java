@@ -0,0 +1,51 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.service.CartService;
+import com.celebstash.backend.service.CartStoreService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartWriteBehindScheduler {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final CartStoreService cartStoreService;
+    private final CartService cartService;
+
+    /**
+     * Copy changed carts from Redis to the database every five seconds
+     * Each batch is written in one transaction, and its claims are only dropped once it committed;
+     * a failed batch is marked dirty again and retried.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void writeBehind() {
+        if (!cartStoreService.isWriteBehindEnabled()) {
+            return;
+        }
+
+        int written = 0;
+        List<Long> userIds;
+        while (!(userIds = cartStoreService.claimDirty(BATCH_SIZE)).isEmpty()) {
+            try {
+                written += cartService.writeBehind(userIds);
+            } catch (RuntimeException e) {
+                log.error("Failed to write behind {} carts", userIds.size(), e);
+                cartStoreService.releaseDirty(new HashSet<>(userIds));
+                break;
+            }
+            cartStoreService.completeDirty(userIds);
+        }
+
+        if (written > 0) {
+            log.debug("Wrote behind {} carts", written);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryRebalanceScheduler {
+
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+
+    /**
+     * Rebalance the inventory shards of every sharded product every ten seconds
+     * Each product is rebalanced in its own short transaction.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void rebalance() {
+        for (Long productId : productRepository.findShardedProductIds()) {
+            try {
+                inventoryService.rebalance(productId);
+            } catch (RuntimeException e) {
+                log.error("Failed to rebalance inventory of product {}", productId, e);
+            }
+        }
+    }
+}
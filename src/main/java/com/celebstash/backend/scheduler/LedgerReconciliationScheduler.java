@@ -0,0 +1,81 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.dto.ledger.WalletLedgerState;
+import com.celebstash.backend.model.LedgerVerificationCheckpoint;
+import com.celebstash.backend.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerReconciliationScheduler {
+
+    private static final int BATCH_SIZE = 500;
+    // Entries younger than this may still have uncommitted entries with lower IDs, and are verified next run
+    private static final Duration VERIFICATION_DELAY = Duration.ofMinutes(10);
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Reconcile the ledger every hour
+     * Verifies that every journal touched since the persisted checkpoint balances, trailing the newest
+     * entries by {@link #VERIFICATION_DELAY}, then walks all wallets in ID order, one batch at a time,
+     * checking that the cached balance matches the ledger balance and advancing the checkpoints of the
+     * wallets that do. Memory use is bounded by the batch size regardless of the ledger size.
+     */
+    @Scheduled(fixedRate = 3600000, initialDelay = 60000)
+    public void reconcile() {
+        log.info("Reconciling ledger...");
+
+        Long verifiedEntryId = ledgerService.getVerifiedEntryId(LedgerVerificationCheckpoint.BALANCED_JOURNALS);
+        Long settledEntryId = ledgerService.getLatestEntryIdBefore(LocalDateTime.now().minus(VERIFICATION_DELAY));
+        if (settledEntryId > verifiedEntryId) {
+            List<String> unbalancedJournals = ledgerService.findUnbalancedJournals(verifiedEntryId, settledEntryId);
+            if (!unbalancedJournals.isEmpty()) {
+                log.error("Found {} unbalanced ledger journals: {}", unbalancedJournals.size(), unbalancedJournals);
+            }
+            ledgerService.markVerified(LedgerVerificationCheckpoint.BALANCED_JOURNALS, settledEntryId);
+        }
+
+        int checked = 0;
+        int mismatched = 0;
+        int opened = 0;
+        int checkpointed = 0;
+        Long afterWalletId = 0L;
+
+        List<WalletLedgerState> batch;
+        while (!(batch = ledgerService.findWalletStates(afterWalletId, BATCH_SIZE)).isEmpty()) {
+            List<WalletLedgerState> consistent = new ArrayList<>(batch.size());
+
+            for (WalletLedgerState state : batch) {
+                checked++;
+                if (!state.hasEntries() && state.checkpointBalance() == null && state.cachedBalance().signum() != 0) {
+                    // Wallet funded before the ledger existed
+                    if (ledgerService.openLegacyBalance(state.walletId())) {
+                        opened++;
+                    }
+                } else if (state.isConsistent()) {
+                    consistent.add(state);
+                } else {
+                    mismatched++;
+                    log.error("Ledger mismatch for wallet {}: cached balance {}, ledger balance {}",
+                            state.walletId(), state.cachedBalance(), state.ledgerBalance());
+                }
+            }
+
+            checkpointed += ledgerService.advanceCheckpoints(consistent);
+            afterWalletId = batch.get(batch.size() - 1).walletId();
+        }
+
+        log.info("Ledger reconciliation checked {} wallets: {} mismatched, {} opened, {} checkpoints advanced",
+                checked, mismatched, opened, checkpointed);
+    }
+}
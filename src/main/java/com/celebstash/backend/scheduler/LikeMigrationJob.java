@@ -0,0 +1,88 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.model.enums.LikeableType;
+import com.celebstash.backend.service.LikeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Job moving post and comment likes from the legacy post_likes and comment_likes join tables into the likes
+ * table. Runs on startup whenever legacy likes are left, on its own thread so startup is not held up; until
+ * it finishes, {@link LikeService} reads and writes both places, and the counter reconciliation leaves like
+ * counters alone, recounting them as soon as the job completes. Can be turned off with
+ * app.migration.likes.enabled=false, which keeps that mode on.
+ * Every batch moves its likes in one transaction, so the job can be interrupted and rerun at any time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.migration.likes.enabled", havingValue = "true", matchIfMissing = true)
+public class LikeMigrationJob {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 100;
+
+    private final LikeService likeService;
+    private final PostCounterReconciliationScheduler postCounterReconciliation;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "like-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LikeMigrationJob(LikeService likeService, PostCounterReconciliationScheduler postCounterReconciliation) {
+        this.likeService = likeService;
+        this.postCounterReconciliation = postCounterReconciliation;
+    }
+
+    /**
+     * Start the migration once the application is up, if there is anything to migrate
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (likeService.isLegacyMigrationPending()) {
+            executor.execute(this::migrate);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Move all post likes, then all comment likes, in batches of {@link #BATCH_SIZE} likes,
+     * committing each batch separately, then recount the post counters
+     */
+    void migrate() {
+        try {
+            for (LikeableType type : new LikeableType[] {LikeableType.POST, LikeableType.COMMENT}) {
+                log.info("Migrating legacy {} likes...", type);
+
+                long moved = 0;
+                int batch;
+                while ((batch = likeService.migrateLegacyLikes(type, BATCH_SIZE)) > 0) {
+                    moved += batch;
+                    // Leave room for regular traffic between batches
+                    Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+                }
+
+                log.info("Like migration moved {} {} likes", moved, type);
+            }
+
+            // Like counters were left alone while the migration ran
+            postCounterReconciliation.reconcile();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Like migration interrupted; it resumes on the next start");
+        } catch (RuntimeException e) {
+            log.error("Like migration failed; it resumes on the next start", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.event.DomainEvent;
+import com.celebstash.backend.event.OutboxEventSink;
+import com.celebstash.backend.model.OutboxEvent;
+import com.celebstash.backend.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelayScheduler {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final OutboxService outboxService;
+    private final List<OutboxEventSink> sinks;
+
+    /**
+     * Deliver due outbox events every second
+     * Each run claims one batch and delivers it to every sink outside any transaction, so a failing sink
+     * cannot roll back the bookkeeping. If the batch fails, its events are delivered one at a time and only
+     * those that fail on their own are retried later, with backoff, until they are parked.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        List<OutboxEvent> batch = outboxService.claimBatch(BATCH_SIZE);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<DomainEvent> events = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                events.add(outboxService.toDomainEvent(event));
+            } catch (RuntimeException e) {
+                outboxService.recordFailure(event.getId(), e.getMessage());
+            }
+        }
+
+        List<Long> delivered = new ArrayList<>(events.size());
+        try {
+            deliver(events);
+            events.forEach(event -> delivered.add(event.id()));
+        } catch (RuntimeException batchFailure) {
+            for (DomainEvent event : events) {
+                try {
+                    deliver(List.of(event));
+                    delivered.add(event.id());
+                } catch (RuntimeException e) {
+                    outboxService.recordFailure(event.id(), e.toString());
+                }
+            }
+        }
+
+        outboxService.markPublished(delivered);
+        log.debug("Relayed {} of {} outbox events to {} sinks", delivered.size(), batch.size(), sinks.size());
+    }
+
+    /**
+     * Delete events delivered more than a week ago, once a day
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgePublished() {
+        int deleted = outboxService.purgePublishedBefore(LocalDateTime.now().minusDays(7));
+        log.info("Purged {} published outbox events", deleted);
+    }
+
+    private void deliver(List<DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (OutboxEventSink sink : sinks) {
+            sink.publish(events);
+        }
+    }
+}
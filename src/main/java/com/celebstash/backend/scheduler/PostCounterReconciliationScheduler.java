@@ -0,0 +1,89 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.service.LikeService;
+import com.celebstash.backend.service.PostCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Component
+public class PostCounterReconciliationScheduler {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final PostCounterService postCounterService;
+    private final LikeService likeService;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-counter-recount");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PostCounterReconciliationScheduler(PostCounterService postCounterService, LikeService likeService) {
+        this.postCounterService = postCounterService;
+        this.likeService = likeService;
+    }
+
+    /**
+     * Recount once the application is up, on its own thread so startup is not held up; this fills in the
+     * counters of posts created before they were denormalized, without waiting for the nightly run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::recountSafely);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Recount post like, comment and share counters every night
+     * Walks all posts in ID order, one short transaction per batch, so only a batch of rows is locked at a time.
+     * While legacy likes are still being migrated, only comment and share counters are recounted, since like
+     * counts are recounted from the likes table.
+     */
+    @Scheduled(cron = "0 15 4 * * *")
+    public void reconcile() {
+        boolean includeLikes = !likeService.isLegacyMigrationPending();
+        if (!includeLikes) {
+            log.info("Post like counters are not recounted until the like migration has finished");
+        }
+
+        int checked = 0;
+        int corrected = 0;
+        Long afterPostId = 0L;
+
+        List<Long> batch;
+        while (!(batch = postCounterService.findPostIdsAfter(afterPostId, BATCH_SIZE)).isEmpty()) {
+            corrected += includeLikes
+                    ? postCounterService.reconcile(batch)
+                    : postCounterService.reconcileCommentsAndShares(batch);
+            checked += batch.size();
+            afterPostId = batch.get(batch.size() - 1);
+        }
+
+        if (corrected > 0) {
+            log.warn("Post counter reconciliation corrected {} of {} posts", corrected, checked);
+        } else {
+            log.info("Post counter reconciliation checked {} posts", checked);
+        }
+    }
+
+    private void recountSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Post counter recount failed; it is retried by the nightly run", e);
+        }
+    }
+}
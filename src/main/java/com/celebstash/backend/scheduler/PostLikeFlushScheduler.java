@@ -0,0 +1,54 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.service.PostCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostLikeFlushScheduler {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final PostCounterService postCounterService;
+
+    /**
+     * Write buffered like count changes to the database
+     * Runs a fixed interval after the previous flush, which bounds how far the stored counts lag behind;
+     * each batch is written in one transaction and a failed batch is put back and retried on the next run.
+     * Deltas still buffered when the instance crashes are lost until the nightly recount of
+     * {@link PostCounterReconciliationScheduler} repairs the counts, up to 24 hours later.
+     */
+    @Scheduled(fixedDelayString = "${app.posts.like-flush-interval-ms:1000}")
+    public synchronized void flush() {
+        int updated = 0;
+        Map<Long, Long> deltas;
+        while (!(deltas = postCounterService.drainPendingLikes(BATCH_SIZE)).isEmpty()) {
+            try {
+                updated += postCounterService.applyLikes(deltas);
+            } catch (RuntimeException e) {
+                log.error("Failed to flush like counts of {} posts", deltas.size(), e);
+                postCounterService.restorePendingLikes(deltas);
+                break;
+            }
+            if (deltas.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+
+        if (updated > 0) {
+            log.debug("Flushed like counts of {} posts", updated);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
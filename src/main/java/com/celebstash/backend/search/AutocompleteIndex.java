@@ -0,0 +1,291 @@
+package com.celebstash.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable prefix index for search-box suggestions.
+ * Every word of every suggestion starts a key, so "jac" suggests "Signed Leather Jacket". Keys are
+ * not stored as strings: a key is a suggestion number and an offset into its normalized text, kept
+ * in two int arrays sorted by the text from that offset on, so a prefix is a contiguous key range
+ * found by binary search. A max segment tree over the key range gives the most popular suggestions
+ * of any prefix without visiting the keys in between.
+ */
+public final class AutocompleteIndex {
+
+    private static final AutocompleteIndex EMPTY = new Builder().build();
+
+    private final Entry[] entries;
+    private final String[] normalized;
+    private final int[] keyEntry;
+    private final int[] keyOffset;
+    // Bottom-up segment tree of key numbers, each node holding the key with the most popular entry below it
+    private final int[] tree;
+
+    private AutocompleteIndex(Entry[] entries, String[] normalized, int[] keyEntry, int[] keyOffset) {
+        this.entries = entries;
+        this.normalized = normalized;
+        this.keyEntry = keyEntry;
+        this.keyOffset = keyOffset;
+
+        int keys = keyEntry.length;
+        this.tree = new int[2 * keys];
+        for (int i = 0; i < keys; i++) {
+            tree[keys + i] = i;
+        }
+        for (int i = keys - 1; i > 0; i--) {
+            tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Get an index without suggestions
+     * @return the empty index
+     */
+    public static AutocompleteIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get the most popular suggestions with a word starting with the given prefix
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions
+     * @return suggestions, most popular first
+     */
+    public List<Entry> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int from = lowerBound(normalizedPrefix, false);
+        int to = lowerBound(normalizedPrefix, true);
+        if (from >= to) {
+            return List.of();
+        }
+
+        // Best-first walk over key ranges, split around the most popular key taken from each
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                Comparator.comparingLong((int[] range) -> -entries[keyEntry[range[2]]].popularity())
+                        .thenComparingInt(range -> range[2]));
+        ranges.add(new int[] {from, to, best(from, to)});
+
+        List<Entry> suggestions = new ArrayList<>(limit);
+        while (!ranges.isEmpty() && suggestions.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            int entry = keyEntry[key];
+
+            // A suggestion can be reached through several of its words
+            if (!contains(suggestions, entries[entry])) {
+                suggestions.add(entries[entry]);
+            }
+            if (range[0] < key) {
+                ranges.add(new int[] {range[0], key, best(range[0], key)});
+            }
+            if (key + 1 < range[1]) {
+                ranges.add(new int[] {key + 1, range[1], best(key + 1, range[1])});
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Get the number of suggestions
+     * @return number of suggestions
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Get the number of prefix keys, one per word of every suggestion
+     * @return number of keys
+     */
+    public int keyCount() {
+        return keyEntry.length;
+    }
+
+    /**
+     * Estimate the heap retained by the index, for sizing and logging
+     * @return approximate size in bytes
+     */
+    public long estimatedBytes() {
+        long bytes = 4L * (keyEntry.length + keyOffset.length + tree.length);
+        for (int i = 0; i < entries.length; i++) {
+            // Entry object and boxed ID, plus the bytes of the display and normalized texts
+            bytes += 48 + 16 + 40 + entries[i].text().length() + 40 + normalized[i].length();
+        }
+        return bytes;
+    }
+
+    private static boolean contains(List<Entry> suggestions, Entry entry) {
+        for (Entry suggestion : suggestions) {
+            if (suggestion == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int best(int from, int to) {
+        int keys = keyEntry.length;
+        int result = -1;
+        for (int l = from + keys, r = to + keys; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = result < 0 ? tree[l] : better(result, tree[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                result = result < 0 ? tree[r] : better(result, tree[r]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        long popularityA = entries[keyEntry[a]].popularity();
+        long popularityB = entries[keyEntry[b]].popularity();
+        if (popularityA != popularityB) {
+            return popularityA > popularityB ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    // First key that does not sort before the prefix or, when past is set, that sorts after every key starting with it
+    private int lowerBound(String prefix, boolean past) {
+        int low = 0;
+        int high = keyEntry.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = comparePrefix(mid, prefix);
+            if (comparison < 0 || (past && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Compare a key with a prefix, treating keys that start with the prefix as equal to it
+    private int comparePrefix(int key, String prefix) {
+        String text = normalized[keyEntry[key]];
+        int offset = keyOffset[key];
+        int length = Math.min(text.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = text.charAt(offset + i) - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", ProductSearchIndex.tokenize(text));
+    }
+
+    /**
+     * Kind of thing a suggestion points to
+     */
+    public enum Kind {
+        PRODUCT,
+        SELLER
+    }
+
+    /**
+     * A suggestion and the popularity it is ranked by
+     */
+    public record Entry(Kind kind, Long id, String text, long popularity) {
+    }
+
+    /**
+     * Collects suggestions and sorts their keys; not thread-safe
+     */
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        /**
+         * Add a suggestion; suggestions without any word are ignored
+         * @param entry the suggestion
+         * @return this builder
+         */
+        public Builder add(Entry entry) {
+            if (!normalize(entry.text()).isEmpty()) {
+                entries.add(entry);
+            }
+            return this;
+        }
+
+        /**
+         * Build the index
+         * @return the index
+         */
+        public AutocompleteIndex build() {
+            Entry[] entryArray = entries.toArray(Entry[]::new);
+            String[] normalized = new String[entryArray.length];
+
+            int keys = 0;
+            for (int i = 0; i < entryArray.length; i++) {
+                normalized[i] = normalize(entryArray[i].text());
+                keys += wordCount(normalized[i]);
+            }
+
+            // Keys packed as entry << 32 | offset, sorted by the text each one starts
+            long[] packed = new long[keys];
+            int key = 0;
+            for (int i = 0; i < entryArray.length; i++) {
+                int offset = 0;
+                while (true) {
+                    packed[key++] = (long) i << 32 | offset;
+                    int space = normalized[i].indexOf(' ', offset);
+                    if (space < 0) {
+                        break;
+                    }
+                    offset = space + 1;
+                }
+            }
+            Long[] boxed = Arrays.stream(packed).boxed().toArray(Long[]::new);
+            Arrays.sort(boxed, (a, b) -> compareSuffixes(normalized, a, b));
+
+            int[] keyEntry = new int[keys];
+            int[] keyOffset = new int[keys];
+            for (int i = 0; i < keys; i++) {
+                keyEntry[i] = (int) (boxed[i] >>> 32);
+                keyOffset[i] = (int) (long) boxed[i];
+            }
+            return new AutocompleteIndex(entryArray, normalized, keyEntry, keyOffset);
+        }
+
+        private static int wordCount(String text) {
+            int words = 1;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == ' ') {
+                    words++;
+                }
+            }
+            return words;
+        }
+
+        private static int compareSuffixes(String[] normalized, long a, long b) {
+            String textA = normalized[(int) (a >>> 32)];
+            String textB = normalized[(int) (b >>> 32)];
+            int offsetA = (int) a;
+            int offsetB = (int) b;
+            int length = Math.min(textA.length() - offsetA, textB.length() - offsetB);
+            for (int i = 0; i < length; i++) {
+                int difference = textA.charAt(offsetA + i) - textB.charAt(offsetB + i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return (textA.length() - offsetA) - (textB.length() - offsetB);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.celebstash.backend.search;
+
+import com.celebstash.backend.model.enums.ProductType;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over product names and descriptions.
+ * Query terms match whole terms, term prefixes and, from {@link #MIN_FUZZY_LENGTH} characters,
+ * terms within one typo. Typo candidates come from an index of single-character deletions, so a
+ * lookup never scans the dictionary. Hits are ranked with BM25-style term saturation, words in the
+ * name weigh more than words in the description, and documents matching more of the query rank first.
+ * Searches run concurrently; changes take a write lock.
+ */
+public final class ProductSearchIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double FUZZY_FACTOR = 0.5;
+    private static final double SATURATION = 1.2;
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator
+            .comparingDouble(Hit::score).reversed()
+            .thenComparing(hit -> hit.document().productId(), Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    // Term -> product ID -> weighted term frequency
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // Term with one character deleted -> terms it was derived from
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+
+    /**
+     * Add a product to the index, replacing any previous version of it
+     * @param document the searchable fields of the product
+     */
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(document.productId(), document);
+            if (previous != null) {
+                unindex(previous);
+            }
+            termFrequencies(document).forEach((term, frequency) -> {
+                Map<Long, Integer> postingList = postings.get(term);
+                if (postingList == null) {
+                    postingList = new HashMap<>();
+                    postings.put(term, postingList);
+                    addDeletions(term);
+                }
+                postingList.put(document.productId(), frequency);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product from the index
+     * @param productId the product ID
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(productId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed products
+     * @return number of products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the best matching products for a free-text query
+     * @param query the query
+     * @param limit maximum number of hits
+     * @return hits, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int total = documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+            Map<Long, Integer> matchedTerms = new HashMap<>();
+
+            for (String queryTerm : queryTerms) {
+                // A document counts each query term once, through its best matching expansion
+                Map<Long, Double> best = new HashMap<>();
+                expand(queryTerm).forEach((term, factor) -> {
+                    Map<Long, Integer> postingList = postings.get(term);
+                    double idf = Math.log(1 + (total - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                    postingList.forEach((productId, frequency) -> {
+                        double score = factor * idf * frequency * (SATURATION + 1) / (frequency + SATURATION);
+                        best.merge(productId, score, Math::max);
+                    });
+                });
+                best.forEach((productId, score) -> {
+                    scores.merge(productId, score, Double::sum);
+                    matchedTerms.merge(productId, 1, Integer::sum);
+                });
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            scores.forEach((productId, score) -> {
+                double coverage = (double) matchedTerms.get(productId) / queryTerms.size();
+                top.add(new Hit(documents.get(productId), score * coverage * coverage));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(BEST_FIRST);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lower-case terms without diacritics
+     * @param text the text, may be null
+     * @return terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> terms = new ArrayList<>();
+        for (String term : NON_WORD.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Indexed terms a query term matches, with the factor its score is scaled by
+    private Map<String, Double> expand(String queryTerm) {
+        Map<String, Double> expansions = new HashMap<>();
+
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> candidates = new HashSet<>(deletions.getOrDefault(queryTerm, Set.of()));
+            for (String deleted : deletionsOf(queryTerm)) {
+                candidates.add(deleted);
+                candidates.addAll(deletions.getOrDefault(deleted, Set.of()));
+            }
+            for (String candidate : candidates) {
+                if (postings.containsKey(candidate) && withinOneEdit(queryTerm, candidate)) {
+                    expansions.put(candidate, FUZZY_FACTOR);
+                }
+            }
+        }
+
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            int expanded = 0;
+            for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.merge(term, PREFIX_FACTOR, Math::max);
+            }
+        }
+
+        if (postings.containsKey(queryTerm)) {
+            expansions.put(queryTerm, 1.0);
+        }
+        return expansions;
+    }
+
+    private void unindex(Document document) {
+        for (String term : termFrequencies(document).keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            postingList.remove(document.productId());
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+                removeDeletions(term);
+            }
+        }
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (String deleted : deletionsOf(term)) {
+                deletions.computeIfAbsent(deleted, key -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    private void removeDeletions(String term) {
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (String deleted : deletionsOf(term)) {
+                Set<String> terms = deletions.get(deleted);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    deletions.remove(deleted);
+                }
+            }
+        }
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> deleted = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            deleted.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return deleted;
+    }
+
+    private static Map<String, Integer> termFrequencies(Document document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(document.name())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(document.description())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    // Optimal string alignment distance of at most one: one insertion, deletion, substitution or transposition
+    static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int prefix = 0;
+        while (prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (a.length() == b.length()) {
+            if (prefix == a.length()) {
+                return true;
+            }
+            String restA = a.substring(prefix + 1);
+            String restB = b.substring(prefix + 1);
+            if (restA.equals(restB)) {
+                return true;
+            }
+            return prefix + 1 < a.length() &&
+                   a.charAt(prefix) == b.charAt(prefix + 1) &&
+                   a.charAt(prefix + 1) == b.charAt(prefix) &&
+                   a.substring(prefix + 2).equals(b.substring(prefix + 2));
+        }
+        String longer = a.length() > b.length() ? a : b;
+        String shorter = a.length() > b.length() ? b : a;
+        return longer.substring(prefix + 1).equals(shorter.substring(prefix));
+    }
+
+    /**
+     * Searchable and displayable fields of an approved product
+     */
+    public record Document(
+            Long productId,
+            String name,
+            String description,
+            BigDecimal price,
+            String imageUrl,
+            ProductType productType,
+            Long sellerId,
+            String sellerName) {
+    }
+
+    /**
+     * A matching product and its relevance score
+     */
+    public record Hit(Document document, double score) {
+    }
+}
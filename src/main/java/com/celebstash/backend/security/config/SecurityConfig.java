@@ -52,7 +52,8 @@ public class SecurityConfig {
                     "/api/v1/auth/**",
                     "/api-docs/**",
                     "/swagger-ui/**",
-                    "/swagger-ui.html"
+                    "/swagger-ui.html",
+                    "/media/**"
                 ).permitAll()
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,102 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.model.Cart;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.Wallet;
+import com.celebstash.backend.repository.CartRepository;
+import com.celebstash.backend.repository.UserRepository;
+import com.celebstash.backend.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Creates the wallet and cart every user owns.
+ * Both are provisioned at signup, so reads can use a single keyed lookup. Users created before
+ * that are covered by the account backfill job, and by the fallbacks below until it has run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountProvisioningService {
+
+    private final WalletRepository walletRepository;
+    private final CartRepository cartRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Create the wallet and cart of a new user
+     * @param user the newly created user
+     */
+    @Transactional
+    public void provision(User user) {
+        walletRepository.save(Wallet.builder()
+                .user(user)
+                .balance(BigDecimal.ZERO)
+                .createdAt(LocalDateTime.now())
+                .build());
+        cartRepository.save(Cart.builder()
+                .user(user)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Create the wallet of a user that has none yet
+     * Runs in its own transaction, so losing the race against a concurrent call only fails the insert
+     * and the caller can read the wallet created by the winner.
+     * @param userId the user ID
+     * @return the wallet of the user
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Wallet provisionWallet(Long userId) {
+        log.warn("Provisioning missing wallet for user {}", userId);
+        return walletRepository.saveAndFlush(Wallet.builder()
+                .user(userRepository.getReferenceById(userId))
+                .balance(BigDecimal.ZERO)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Create the cart of a user that has none yet
+     * Runs in its own transaction for the same reason as {@link #provisionWallet(Long)}
+     * @param userId the user ID
+     * @return the cart of the user
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Cart provisionCart(Long userId) {
+        log.warn("Provisioning missing cart for user {}", userId);
+        return cartRepository.saveAndFlush(Cart.builder()
+                .user(userRepository.getReferenceById(userId))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Create the missing wallets and carts of the users in an ID range with two set-based inserts
+     * @param afterUserId the exclusive lower bound of the range
+     * @param upToUserId the inclusive upper bound of the range
+     * @return the number of wallets and carts created
+     */
+    @Transactional
+    public int backfill(Long afterUserId, Long upToUserId) {
+        LocalDateTime now = LocalDateTime.now();
+        return walletRepository.insertMissingForUsers(afterUserId, upToUserId, now)
+                + cartRepository.insertMissingForUsers(afterUserId, upToUserId, now);
+    }
+
+    /**
+     * Get the highest user ID, the end of the backfill range
+     * @return the highest user ID, 0 if there are no users
+     */
+    @Transactional(readOnly = true)
+    public Long getMaxUserId() {
+        return userRepository.findMaxId();
+    }
+}
@@ -0,0 +1,211 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.bid.BidResponse;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of the auctions that are still open, sorted by ending-soonest.
+ * The snapshot is rebuilt from the database on startup and periodically, and patched
+ * incrementally after every committed bid or auction change so the listing endpoint
+ * never has to touch the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuctionSnapshotService {
+
+    // Auctions that have not started yet have no end time and are listed last
+    private static final Comparator<ActiveAuction> ENDING_SOONEST = Comparator
+            .comparing(ActiveAuction::bidEndTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ActiveAuction::productId);
+
+    private final ProductRepository productRepository;
+
+    // Guarded by this; the published snapshot is an immutable sorted copy of its values
+    private final Map<Long, ActiveAuction> auctions = new HashMap<>();
+    private volatile List<ActiveAuction> snapshot = List.of();
+
+    /**
+     * Rebuild the snapshot from the database
+     * Runs on startup and every five minutes to bound drift from changes made outside this service
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedRate = 300000, initialDelay = 300000)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Product> openAuctions = productRepository.findOpenAuctionsWithBidder(
+                ProductType.BIDDING, ProductStatus.APPROVED, LocalDateTime.now());
+
+        synchronized (this) {
+            auctions.clear();
+            for (Product product : openAuctions) {
+                auctions.put(product.getId(), ActiveAuction.from(product));
+            }
+            publish();
+        }
+
+        log.info("Rebuilt auction snapshot with {} open auctions", openAuctions.size());
+    }
+
+    /**
+     * Drop auctions that have ended since the last rebuild
+     */
+    @Scheduled(fixedRate = 60000)
+    public void pruneExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            if (auctions.values().removeIf(auction -> auction.hasEndedBy(now))) {
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Get a page of open auctions, ending-soonest first
+     * @param pageable pagination information (sorting is fixed)
+     * @return page of bid responses
+     */
+    public Page<BidResponse> getActiveAuctions(Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ActiveAuction> current = snapshot;
+
+        // Auctions that ended since the last prune sit at the head of the list
+        int firstOpen = 0;
+        while (firstOpen < current.size() && current.get(firstOpen).hasEndedBy(now)) {
+            firstOpen++;
+        }
+
+        int total = current.size() - firstOpen;
+        int from = (int) Math.min(firstOpen + pageable.getOffset(), current.size());
+        int to = Math.min(from + pageable.getPageSize(), current.size());
+
+        List<BidResponse> content = new ArrayList<>(to - from);
+        for (ActiveAuction auction : current.subList(from, to)) {
+            content.add(auction.toResponse(now));
+        }
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Refresh a single auction in the snapshot once the surrounding transaction commits
+     * Products that are no longer open auctions are removed from the snapshot
+     * @param product the product that changed
+     */
+    public void refresh(Product product) {
+        Long productId = product.getId();
+        ActiveAuction auction = isOpenAuction(product, LocalDateTime.now()) ? ActiveAuction.from(product) : null;
+
+        Transactions.afterCommit(() -> {
+            synchronized (this) {
+                if (auction != null) {
+                    auctions.put(productId, auction);
+                } else if (auctions.remove(productId) == null) {
+                    return;
+                }
+                publish();
+            }
+        });
+    }
+
+    /**
+     * Remove an auction from the snapshot once the surrounding transaction commits
+     * @param productId the product ID
+     */
+    public void evict(Long productId) {
+        Transactions.afterCommit(() -> {
+            synchronized (this) {
+                if (auctions.remove(productId) != null) {
+                    publish();
+                }
+            }
+        });
+    }
+
+    private void publish() {
+        List<ActiveAuction> sorted = new ArrayList<>(auctions.values());
+        sorted.sort(ENDING_SOONEST);
+        snapshot = List.copyOf(sorted);
+    }
+
+    private static boolean isOpenAuction(Product product, LocalDateTime now) {
+        return product.getProductType() == ProductType.BIDDING &&
+               product.getStatus() == ProductStatus.APPROVED &&
+               (product.getBidEndTime() == null || product.getBidEndTime().isAfter(now));
+    }
+
+    /**
+     * Immutable copy of the fields needed to render an auction in the listing
+     */
+    record ActiveAuction(
+            Long productId,
+            String productName,
+            String productDescription,
+            String productImageUrl,
+            BigDecimal initialBidPrice,
+            BigDecimal currentBidPrice,
+            Long currentBidderId,
+            String currentBidderName,
+            LocalDateTime bidStartTime,
+            LocalDateTime bidEndTime) {
+
+        static ActiveAuction from(Product product) {
+            return new ActiveAuction(
+                    product.getId(),
+                    product.getName(),
+                    product.getDescription(),
+                    product.getImageUrl(),
+                    product.getInitialBidPrice(),
+                    product.getCurrentBidPrice(),
+                    product.getCurrentBidder() != null ? product.getCurrentBidder().getId() : null,
+                    product.getCurrentBidder() != null ? product.getCurrentBidder().getFullName() : null,
+                    product.getBidStartTime(),
+                    product.getBidEndTime());
+        }
+
+        boolean hasEndedBy(LocalDateTime now) {
+            return bidEndTime != null && !bidEndTime.isAfter(now);
+        }
+
+        BidResponse toResponse(LocalDateTime now) {
+            boolean isActive = bidStartTime != null && !hasEndedBy(now);
+
+            return BidResponse.builder()
+                    .productId(productId)
+                    .productName(productName)
+                    .productDescription(productDescription)
+                    .productImageUrl(productImageUrl)
+                    .initialBidPrice(initialBidPrice)
+                    .currentBidPrice(currentBidPrice)
+                    .currentBidderId(currentBidderId)
+                    .currentBidderName(currentBidderName)
+                    .bidStartTime(bidStartTime)
+                    .bidEndTime(bidEndTime)
+                    .isActive(isActive)
+                    .bidStatus(bidStartTime == null ? "NOT_STARTED" : (isActive ? "ACTIVE" : "EXPIRED"))
+                    .build();
+        }
+    }
+}
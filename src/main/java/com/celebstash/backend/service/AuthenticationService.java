@@ -25,6 +25,7 @@ import java.util.Optional;
 public class AuthenticationService {
 
     private final UserService userService;
+    private final AccountProvisioningService accountProvisioningService;
     private final OtpService otpService;
     private final RefreshTokenService refreshTokenService;
     private final JwtUtils jwtUtils;
@@ -98,6 +99,9 @@ public class AuthenticationService {
         // Verify user
         user = userService.verifyUser(user, isEmail);
 
+        // Provision the wallet and cart with the account, so later reads never have to create them
+        accountProvisioningService.provision(user);
+
         // Generate tokens
         String accessToken = jwtUtils.generateAccessToken(user);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user, httpRequest);
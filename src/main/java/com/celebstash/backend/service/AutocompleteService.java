@@ -0,0 +1,131 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.product.AutocompleteSuggestion;
+import com.celebstash.backend.dto.product.ProductPopularity;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.TransactionType;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.search.AutocompleteIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-box suggestions for approved product names and the names of their sellers.
+ * Suggestions come from an immutable prefix index that is rebuilt from the database in the
+ * background, on a thread of its own so a long rebuild never holds up the scheduled jobs, and swapped in
+ * whole, so lookups never wait for a rebuild or touch the database.
+ * Products rank by the number of purchases and bids placed on them, sellers by the sum over their products.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final long REBUILD_INTERVAL_MINUTES = 10;
+    private static final List<TransactionType> ORDER_TYPES = List.of(TransactionType.PURCHASE, TransactionType.BID);
+
+    private final ProductRepository productRepository;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autocomplete-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile AutocompleteIndex index = AutocompleteIndex.empty();
+
+    /**
+     * Rebuild the suggestions right after startup and then ten minutes after every rebuild
+     */
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Keep serving the previous index; an exception would also cancel all later rebuilds
+                log.error("Failed to rebuild autocomplete index", e);
+            }
+        }, 0, REBUILD_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rebuild the suggestions from the database
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+        Map<Long, SellerPopularity> sellers = new HashMap<>();
+
+        // Keyset batches, each loaded in its own short read
+        Long afterId = 0L;
+        List<ProductPopularity> batch;
+        do {
+            batch = productRepository.findPopularityBatch(
+                    ProductStatus.APPROVED, ORDER_TYPES, afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (ProductPopularity product : batch) {
+                builder.add(new AutocompleteIndex.Entry(
+                        AutocompleteIndex.Kind.PRODUCT, product.productId(), product.productName(), product.orders()));
+                sellers.computeIfAbsent(product.sellerId(), id -> new SellerPopularity(product.sellerName()))
+                        .orders += product.orders();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).productId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        sellers.forEach((sellerId, seller) -> builder.add(new AutocompleteIndex.Entry(
+                AutocompleteIndex.Kind.SELLER, sellerId, seller.name, seller.orders)));
+
+        AutocompleteIndex rebuilt = builder.build();
+        index = rebuilt;
+
+        log.info("Rebuilt autocomplete index with {} suggestions and {} keys (~{} KB) in {} ms",
+                rebuilt.size(), rebuilt.keyCount(), rebuilt.estimatedBytes() / 1024,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Suggest product and seller names with a word starting with what the user has typed
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions
+     * @return suggestions, most popular first
+     */
+    public List<AutocompleteSuggestion> suggest(String prefix, int limit) {
+        return index.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS)).stream()
+                .map(entry -> AutocompleteSuggestion.builder()
+                        .type(entry.kind())
+                        .id(entry.id())
+                        .text(entry.text())
+                        .popularity(entry.popularity())
+                        .build())
+                .toList();
+    }
+
+    private static final class SellerPopularity {
+        private final String name;
+        private long orders;
+
+        private SellerPopularity(String name) {
+            this.name = name;
+        }
+    }
+}
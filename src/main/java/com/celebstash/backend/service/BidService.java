@@ -8,8 +8,11 @@ import com.celebstash.backend.model.User;
 import com.celebstash.backend.model.enums.ProductStatus;
 import com.celebstash.backend.model.enums.ProductType;
 import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.util.Money;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +30,8 @@ public class BidService {
     private final ProductRepository productRepository;
     private final UserService userService;
     private final WalletService walletService;
+    private final AuctionSnapshotService auctionSnapshotService;
+    private final EntityCacheService entityCacheService;
 
     /**
      * Get all products available for bidding
@@ -34,7 +39,7 @@ public class BidService {
      */
     @Transactional(readOnly = true)
     public List<BidResponse> getBiddingProducts() {
-        List<Product> biddingProducts = productRepository.findByProductTypeAndStatus(
+        List<Product> biddingProducts = productRepository.findByProductTypeAndStatusWithBidder(
                 ProductType.BIDDING, ProductStatus.APPROVED);
 
         return biddingProducts.stream()
@@ -42,6 +47,15 @@ public class BidService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get a page of open auctions, ending-soonest first, served from the in-memory snapshot
+     * @param pageable pagination information
+     * @return page of active bidding products
+     */
+    public Page<BidResponse> getActiveAuctions(Pageable pageable) {
+        return auctionSnapshotService.getActiveAuctions(pageable);
+    }
+
     /**
      * Place a bid on a product
      * @param request the bid request
@@ -68,15 +82,18 @@ public class BidService {
             throw new AppException("Bidding has ended for this product", HttpStatus.BAD_REQUEST);
         }
 
+        // Amounts are compared in minor units; rejects bids with more than two decimal places
+        Money bidAmount = Money.of(request.getBidAmount());
+
         // Check if user has sufficient balance for the bid
-        if (!walletService.hasSufficientBalance(request.getBidAmount())) {
+        if (!walletService.hasSufficientBalance(bidAmount)) {
             throw new AppException("Insufficient wallet balance. Please top up your wallet.", HttpStatus.BAD_REQUEST);
         }
 
         // If this is the first bid, start the bidding
         if (product.getBidStartTime() == null) {
             // First bid must be at least the initial price
-            if (request.getBidAmount().compareTo(product.getInitialBidPrice()) < 0) {
+            if (bidAmount.isLessThan(Money.of(product.getInitialBidPrice()))) {
                 throw new AppException("Bid amount must be at least the initial price: " + 
                         product.getInitialBidPrice(), HttpStatus.BAD_REQUEST);
             }
@@ -84,11 +101,11 @@ public class BidService {
             // Start the bidding
             product.setBidStartTime(LocalDateTime.now());
             product.setBidEndTime(LocalDateTime.now().plusHours(24)); // 24-hour countdown
-            product.setCurrentBidPrice(request.getBidAmount());
+            product.setCurrentBidPrice(bidAmount.toBigDecimal());
             product.setCurrentBidder(currentUser);
         } else {
             // Subsequent bids must be higher than the current bid
-            if (request.getBidAmount().compareTo(product.getCurrentBidPrice()) <= 0) {
+            if (!bidAmount.isGreaterThan(Money.of(product.getCurrentBidPrice()))) {
                 throw new AppException("Bid amount must be higher than the current bid: " + 
                         product.getCurrentBidPrice(), HttpStatus.BAD_REQUEST);
             }
@@ -100,14 +117,16 @@ public class BidService {
             }
 
             // Update the current bid
-            product.setCurrentBidPrice(request.getBidAmount());
+            product.setCurrentBidPrice(bidAmount.toBigDecimal());
             product.setCurrentBidder(currentUser);
         }
 
         // Reserve funds for the bid
-        walletService.reserveFundsForBid(request.getBidAmount(), product.getId());
+        walletService.reserveFundsForBid(bidAmount.toBigDecimal(), product.getId());
 
         Product updatedProduct = productRepository.save(product);
+        auctionSnapshotService.refresh(updatedProduct);
+        entityCacheService.evictProductAfterCommit(updatedProduct.getId());
         return mapToBidResponse(updatedProduct);
     }
 
@@ -119,7 +138,7 @@ public class BidService {
     @Transactional(readOnly = true)
     public BidResponse getBidDetails(Long productId) {
         User currentUser = userService.getCurrentUser();
-        Product product = productRepository.findById(productId)
+        Product product = entityCacheService.findProduct(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
 
         // Validate product is a bidding product
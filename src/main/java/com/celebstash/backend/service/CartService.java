@@ -1,24 +1,40 @@
 package com.celebstash.backend.service;
 
+import com.celebstash.backend.dto.cart.AbandonedCart;
+import com.celebstash.backend.dto.cart.CartContents;
 import com.celebstash.backend.dto.cart.CartItemResponse;
+import com.celebstash.backend.dto.cart.CartLineView;
 import com.celebstash.backend.dto.cart.CartResponse;
+import com.celebstash.backend.dto.cart.CheckoutResponse;
+import com.celebstash.backend.dto.wallet.WalletResponse;
 import com.celebstash.backend.exception.AppException;
 import com.celebstash.backend.model.Cart;
 import com.celebstash.backend.model.CartItem;
 import com.celebstash.backend.model.Product;
-import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.OutboxEventType;
 import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.redis.CartLine;
 import com.celebstash.backend.repository.CartItemRepository;
 import com.celebstash.backend.repository.CartRepository;
 import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.service.CartStoreService.StoredCart;
+import com.celebstash.backend.util.Money;
+import com.celebstash.backend.util.Transactions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,7 +45,12 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserService userService;
+    private final AccountProvisioningService accountProvisioningService;
     private final WalletService walletService;
+    private final CartStoreService cartStoreService;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final EntityCacheService entityCacheService;
 
     /**
      * Get or create a cart for the current user
@@ -37,14 +58,17 @@ public class CartService {
      */
     @Transactional
     public Cart getOrCreateCart() {
-        User currentUser = userService.getCurrentUser();
-        return cartRepository.findByUser(currentUser)
+        Long userId = userService.getCurrentUserId();
+        return cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .user(currentUser)
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                    return cartRepository.save(newCart);
+                    // Users created before carts were provisioned at signup
+                    try {
+                        accountProvisioningService.provisionCart(userId);
+                    } catch (DataIntegrityViolationException e) {
+                        // A concurrent request created it first
+                    }
+                    return cartRepository.findByUserId(userId)
+                            .orElseThrow(() -> new AppException("Cart not found", HttpStatus.NOT_FOUND));
                 });
     }
 
@@ -60,7 +84,7 @@ public class CartService {
             throw new AppException("Quantity must be greater than 0", HttpStatus.BAD_REQUEST);
         }
 
-        Product product = productRepository.findById(productId)
+        Product product = entityCacheService.findProduct(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
 
         // Only approved products can be added to cart
@@ -68,39 +92,24 @@ public class CartService {
             throw new AppException("Product is not available for purchase", HttpStatus.BAD_REQUEST);
         }
 
-        // Check if there's enough stock
-        if (product.getStockQuantity() < quantity) {
+        // Check if there's enough stock, against the database since the cached product may be stale
+        if (inventoryService.getAvailableStock(productId) < quantity) {
             throw new AppException("Not enough stock available", HttpStatus.BAD_REQUEST);
         }
 
         // Calculate total price for this product
-        BigDecimal totalPrice = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        Money totalPrice = Money.of(product.getPrice()).times(quantity);
 
         // Check if user has sufficient balance
         if (!walletService.hasSufficientBalance(totalPrice)) {
             throw new AppException("Insufficient wallet balance. Please top up your wallet.", HttpStatus.BAD_REQUEST);
         }
 
-        Cart cart = getOrCreateCart();
-
-        // Check if product already exists in cart
-        CartItem existingItem = cartItemRepository.findByCartAndProduct(cart, product).orElse(null);
-
-        if (existingItem != null) {
-            // Update quantity if product already in cart
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            // Add new item to cart
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(quantity)
-                    .build();
-            cartItemRepository.save(newItem);
-        }
+        Long userId = userService.getCurrentUserId();
+        CartLine line = snapshot(product);
+        StoredCart cart = updateCart(userId, id -> cartStoreService.add(id, line, quantity));
 
-        return mapToCartResponse(cart);
+        return mapToCartResponse(userId, cart);
     }
 
     /**
@@ -110,14 +119,10 @@ public class CartService {
      */
     @Transactional
     public CartResponse removeProductFromCart(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
-
-        Cart cart = getOrCreateCart();
-
-        cartItemRepository.deleteByCartAndProduct(cart, product);
+        Long userId = userService.getCurrentUserId();
+        StoredCart cart = updateCart(userId, id -> cartStoreService.remove(id, productId));
 
-        return mapToCartResponse(cart);
+        return mapToCartResponse(userId, cart);
     }
 
     /**
@@ -132,31 +137,31 @@ public class CartService {
             return removeProductFromCart(productId);
         }
 
-        Product product = productRepository.findById(productId)
+        Product product = entityCacheService.findProduct(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
 
-        // Check if there's enough stock
-        if (product.getStockQuantity() < quantity) {
+        // Check if there's enough stock, against the database since the cached product may be stale
+        if (inventoryService.getAvailableStock(productId) < quantity) {
             throw new AppException("Not enough stock available", HttpStatus.BAD_REQUEST);
         }
 
         // Calculate total price for this product
-        BigDecimal totalPrice = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        Money totalPrice = Money.of(product.getPrice()).times(quantity);
 
         // Check if user has sufficient balance
         if (!walletService.hasSufficientBalance(totalPrice)) {
             throw new AppException("Insufficient wallet balance. Please top up your wallet.", HttpStatus.BAD_REQUEST);
         }
 
-        Cart cart = getOrCreateCart();
+        Long userId = userService.getCurrentUserId();
+        CartLine line = snapshot(product);
+        StoredCart cart = updateCart(userId, id -> cartStoreService.setQuantity(id, line, quantity));
 
-        CartItem cartItem = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElseThrow(() -> new AppException("Product not found in cart", HttpStatus.NOT_FOUND));
-
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
+        if (cart.findLine(productId).isEmpty()) {
+            throw new AppException("Product not found in cart", HttpStatus.NOT_FOUND);
+        }
 
-        return mapToCartResponse(cart);
+        return mapToCartResponse(userId, cart);
     }
 
     /**
@@ -165,8 +170,26 @@ public class CartService {
      */
     @Transactional(readOnly = true)
     public CartResponse getCartItems() {
-        Cart cart = getOrCreateCart();
-        return mapToCartResponse(cart);
+        Long userId = userService.getCurrentUserId();
+        StoredCart cart = cartStoreService.find(userId)
+                .orElseGet(() -> loadCart(userId));
+
+        return mapToCartResponse(userId, cart);
+    }
+
+    /**
+     * Get what the user's cart holds, without prices
+     * @return the cart ID and the quantity of every product
+     */
+    @Transactional(readOnly = true)
+    public CartContents getCartContents() {
+        Long userId = userService.getCurrentUserId();
+        StoredCart cart = cartStoreService.find(userId)
+                .orElseGet(() -> loadCart(userId));
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        cart.lines().forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+        return new CartContents(cart.cartId(), quantities);
     }
 
     /**
@@ -174,57 +197,250 @@ public class CartService {
      */
     @Transactional
     public void clearCart() {
-        Cart cart = getOrCreateCart();
-        cartItemRepository.deleteByCart(cart);
+        Long userId = userService.getCurrentUserId();
+        updateCart(userId, id -> cartStoreService.replace(id, List.of()));
     }
 
     /**
-     * Map a Cart entity to a CartResponse DTO
-     * @param cart the cart entity
-     * @return the cart response DTO
+     * Buy everything in the user's cart
+     * All lines are bought in one transaction, in product ID order so concurrent checkouts lock rows
+     * in the same order. Stock is taken with conditional updates that fail instead of going negative,
+     * and the lines are charged at the current product prices with one guarded wallet debit of the total,
+     * so either every line is bought or nothing changes. The cart rows are cleared in the same transaction,
+     * and the bought quantities are taken out of the Redis cart once it commits, keeping lines added since.
+     * @return the checkout response
      */
-    private CartResponse mapToCartResponse(Cart cart) {
-        List<CartItem> cartItems = cartItemRepository.findByCart(cart);
-        List<CartItemResponse> cartItemResponses = cartItems.stream()
-                .map(this::mapToCartItemResponse)
-                .collect(Collectors.toList());
+    @Transactional
+    public CheckoutResponse checkout() {
+        Long userId = userService.getCurrentUserId();
+        StoredCart cart = cartStoreService.find(userId)
+                .orElseGet(() -> loadCart(userId));
 
-        // Calculate total items and total price
-        int totalItems = cartItemResponses.stream()
-                .mapToInt(CartItemResponse::getQuantity)
-                .sum();
+        if (cart.lines().isEmpty()) {
+            throw new AppException("Cart is empty", HttpStatus.BAD_REQUEST);
+        }
 
-        BigDecimal totalPrice = cartItemResponses.stream()
-                .map(CartItemResponse::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Current prices, loaded in one query; cart lines only hold the price at the time they were added
+        Map<Long, Product> products = productRepository.findAllById(
+                        cart.lines().stream().map(CartLine::getProductId).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CartItemResponse> items = new ArrayList<>(cart.lines().size());
+        List<WalletService.Purchase> purchases = new ArrayList<>(cart.lines().size());
+        int totalItems = 0;
+        Money totalPrice = Money.ZERO;
+
+        for (CartLine line : cart.lines()) {
+            Product product = products.get(line.getProductId());
+            if (product == null || !inventoryService.takeStock(product, line.getQuantity(), now)) {
+                throw new AppException("Not enough stock available for " + line.getProductName(), HttpStatus.CONFLICT);
+            }
+
+            entityCacheService.evictProductAfterCommit(product.getId());
+
+            CartLine charged = snapshot(product);
+            charged.setQuantity(line.getQuantity());
+            Money subtotal = Money.ofCents(charged.getUnitPriceCents()).times(charged.getQuantity());
+            items.add(mapToCartItemResponse(charged, subtotal));
+            purchases.add(new WalletService.Purchase(product, subtotal.toBigDecimal()));
+            totalItems += charged.getQuantity();
+            totalPrice = totalPrice.plus(subtotal);
+        }
 
-        return CartResponse.builder()
-                .id(cart.getId())
-                .userId(cart.getUser().getId())
-                .items(cartItemResponses)
+        // One debit of the total; fails with the whole transaction if the balance does not cover it
+        WalletResponse wallet = walletService.payForPurchases(purchases);
+
+        cartItemRepository.deleteAllByCartId(cart.cartId());
+        cartRepository.touch(cart.cartId(), now);
+        Map<Long, Integer> bought = cart.lines().stream()
+                .collect(Collectors.toMap(CartLine::getProductId, CartLine::getQuantity));
+        Transactions.afterCommit(() -> cartStoreService.take(userId, bought));
+
+        return CheckoutResponse.builder()
+                .items(items)
                 .totalItems(totalItems)
-                .totalPrice(totalPrice)
+                .totalPrice(totalPrice.toBigDecimal())
+                .walletBalance(wallet.getBalance())
                 .build();
     }
 
     /**
-     * Map a CartItem entity to a CartItemResponse DTO
-     * @param cartItem the cart item entity
-     * @return the cart item response DTO
+     * Copy carts from Redis to the cart_items table
+     * Carts that are no longer in Redis keep the rows written last.
+     * @param userIds the users whose carts changed
+     * @return the number of carts written
      */
-    private CartItemResponse mapToCartItemResponse(CartItem cartItem) {
-        Product product = cartItem.getProduct();
-        BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
+    @Transactional
+    public int writeBehind(List<Long> userIds) {
+        int written = 0;
+        for (Long userId : userIds) {
+            Optional<StoredCart> stored = cartStoreService.find(userId);
+            if (stored.isEmpty()) {
+                continue;
+            }
+
+            Cart cart = cartRepository.getReferenceById(stored.get().cartId());
+            cartItemRepository.deleteAllByCartId(cart.getId());
+
+            List<CartItem> items = new ArrayList<>(stored.get().lines().size());
+            for (CartLine line : stored.get().lines()) {
+                items.add(CartItem.builder()
+                        .cart(cart)
+                        .product(productRepository.getReferenceById(line.getProductId()))
+                        .quantity(line.getQuantity())
+                        .build());
+            }
+            cartItemRepository.saveAll(items);
+            cartRepository.touch(cart.getId(), LocalDateTime.now());
+            written++;
+        }
+        return written;
+    }
 
-        return CartItemResponse.builder()
-                .id(cartItem.getId())
+    /**
+     * Find carts with items that have not changed since the cutoff
+     * @param afterCartId only carts with a higher ID are returned
+     * @param cutoff the time before which a cart counts as abandoned
+     * @param limit the maximum number of carts
+     * @return the abandoned carts, in ID order
+     */
+    @Transactional(readOnly = true)
+    public List<AbandonedCart> findAbandonedCarts(Long afterCartId, LocalDateTime cutoff, int limit) {
+        return cartRepository.findAbandoned(afterCartId, cutoff, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Remove the items of abandoned carts in one statement, keeping the carts themselves
+     * Carts written since they were found are left alone, and so are carts with changes in Redis that are
+     * still to be written behind.
+     * @param carts the abandoned carts
+     * @param cutoff the time before which a cart counts as abandoned
+     * @param publishEvents whether to record a CART_ABANDONED event per cart
+     * @return the number of cart items removed
+     */
+    @Transactional
+    public int removeAbandonedItems(List<AbandonedCart> carts, LocalDateTime cutoff, boolean publishEvents) {
+        List<Long> cartIds = carts.stream().map(AbandonedCart::cartId).toList();
+        int removed = cartItemRepository.deleteAllOfAbandonedCarts(cartIds, cutoff);
+
+        if (publishEvents) {
+            for (AbandonedCart cart : carts) {
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("cartId", cart.cartId());
+                payload.put("userId", cart.userId());
+                payload.put("lastActivityAt", cart.lastActivityAt().toString());
+                outboxService.record(OutboxEventType.CART_ABANDONED, cart.cartId(), payload);
+            }
+        }
+
+        // A cart reloaded into Redis after its last change would otherwise bring the items back; one changed
+        // since is kept, and writing it behind restores its rows
+        List<Long> userIds = carts.stream().map(AbandonedCart::userId).toList();
+        Transactions.afterCommit(() -> cartStoreService.evictUnchanged(userIds));
+        return removed;
+    }
+
+    /**
+     * Apply an update to the user's cart in Redis, loading the cart first if it is not there
+     * @param userId the user ID
+     * @param update the update, returning empty if the cart is not loaded
+     * @return the updated cart
+     */
+    private StoredCart updateCart(Long userId, Function<Long, Optional<StoredCart>> update) {
+        return update.apply(userId)
+                .or(() -> {
+                    loadCart(userId);
+                    return update.apply(userId);
+                })
+                .orElseThrow(() -> new AppException("Cart is temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    /**
+     * Load the user's cart into Redis from the cart_items table, or empty if write-behind is disabled
+     * @param userId the user ID
+     * @return the loaded cart
+     */
+    private StoredCart loadCart(Long userId) {
+        Cart cart = getOrCreateCart();
+        List<CartLine> lines = new ArrayList<>();
+
+        if (cartStoreService.isWriteBehindEnabled()) {
+            for (CartLineView view : cartItemRepository.findLinesByCartId(cart.getId())) {
+                lines.add(CartLine.builder()
+                        .productId(view.productId())
+                        .productName(view.productName())
+                        .productDescription(view.productDescription())
+                        .productImageUrl(view.productImageUrl())
+                        .unitPriceCents(Money.of(view.productPrice()).cents())
+                        .quantity(view.quantity())
+                        .build());
+            }
+        }
+
+        return cartStoreService.load(userId, cart.getId(), lines);
+    }
+
+    /**
+     * Take a snapshot of a product for the cart
+     * @param product the product
+     * @return the cart line, without quantity
+     */
+    private static CartLine snapshot(Product product) {
+        return CartLine.builder()
                 .productId(product.getId())
                 .productName(product.getName())
                 .productDescription(product.getDescription())
                 .productImageUrl(product.getImageUrl())
-                .productPrice(product.getPrice())
-                .quantity(cartItem.getQuantity())
-                .subtotal(subtotal)
+                .unitPriceCents(Money.of(product.getPrice()).cents())
+                .build();
+    }
+
+    /**
+     * Map a stored cart to a CartResponse DTO
+     * @param userId the user ID
+     * @param cart the stored cart
+     * @return the cart response DTO
+     */
+    private CartResponse mapToCartResponse(Long userId, StoredCart cart) {
+        List<CartItemResponse> cartItemResponses = new ArrayList<>(cart.lines().size());
+        int totalItems = 0;
+        Money totalPrice = Money.ZERO;
+
+        // Map the items and calculate the totals in one pass, in minor units
+        for (CartLine line : cart.lines()) {
+            Money subtotal = Money.ofCents(line.getUnitPriceCents()).times(line.getQuantity());
+            cartItemResponses.add(mapToCartItemResponse(line, subtotal));
+            totalItems += line.getQuantity();
+            totalPrice = totalPrice.plus(subtotal);
+        }
+
+        return CartResponse.builder()
+                .id(cart.cartId())
+                .userId(userId)
+                .items(cartItemResponses)
+                .totalItems(totalItems)
+                .totalPrice(totalPrice.toBigDecimal())
+                .build();
+    }
+
+    /**
+     * Map a cart line to a CartItemResponse DTO
+     * Cart lines live in Redis and have no row ID, so the item ID is not set
+     * @param line the cart line
+     * @param subtotal the price of the line
+     * @return the cart item response DTO
+     */
+    private CartItemResponse mapToCartItemResponse(CartLine line, Money subtotal) {
+        return CartItemResponse.builder()
+                .productId(line.getProductId())
+                .productName(line.getProductName())
+                .productDescription(line.getProductDescription())
+                .productImageUrl(line.getProductImageUrl())
+                .productPrice(Money.ofCents(line.getUnitPriceCents()).toBigDecimal())
+                .quantity(line.getQuantity())
+                .subtotal(subtotal.toBigDecimal())
                 .build();
     }
 }
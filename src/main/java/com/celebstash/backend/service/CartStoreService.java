@@ -0,0 +1,396 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.model.redis.CartLine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stores each user's cart in a Redis hash, so every cart read or update is a single round-trip.
+ * <p>
+ * Hash layout of cart:{userId}: "id" holds the cart ID, and each product has a "qty:{productId}" field
+ * with its quantity and a "line:{productId}" field with the JSON product snapshot. Updates run as Lua
+ * scripts that return the whole cart, and do nothing when the hash is missing (expired or never loaded),
+ * in which case the caller loads the cart and retries.
+ * <p>
+ * With write-behind enabled, every updated cart is added to the cart:dirty set and later copied to the
+ * cart_items table, which is also where carts are reloaded from once their hash expired. Carts being
+ * copied are moved to the cart:writing sorted set, scored by when they were claimed, and only leave it
+ * once their copy committed; claims older than a lease are put back in cart:dirty, so a cart is never
+ * lost from both sets when an instance dies mid-write.
+ */
+@Slf4j
+@Service
+public class CartStoreService {
+
+    public static final Duration CART_TTL = Duration.ofDays(30);
+
+    private static final String DIRTY_KEY = "cart:dirty";
+    private static final String WRITING_KEY = "cart:writing";
+    private static final Duration WRITE_LEASE = Duration.ofMinutes(5);
+    private static final String ID_FIELD = "id";
+    private static final String QUANTITY_PREFIX = "qty:";
+    private static final String LINE_PREFIX = "line:";
+
+    // KEYS: cart; ARGV: ttl, then alternating fields and values
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    // KEYS: dirty, writing; ARGV: count, now, claims made before this time are expired
+    private static final RedisScript<List> CLAIM_DIRTY_SCRIPT = new DefaultRedisScript<>("""
+            local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[3])
+            for _, id in ipairs(expired) do
+                redis.call('SADD', KEYS[1], id)
+                redis.call('ZREM', KEYS[2], id)
+            end
+            local ids = redis.call('SPOP', KEYS[1], ARGV[1])
+            for _, id in ipairs(ids) do
+                redis.call('ZADD', KEYS[2], ARGV[2], id)
+            end
+            return ids
+            """, List.class);
+
+    // KEYS: dirty, writing; ARGV: user IDs
+    private static final RedisScript<Long> RELEASE_DIRTY_SCRIPT = new DefaultRedisScript<>("""
+            for _, id in ipairs(ARGV) do
+                redis.call('SADD', KEYS[1], id)
+                redis.call('ZREM', KEYS[2], id)
+            end
+            return #ARGV
+            """, Long.class);
+
+    // KEYS: dirty, writing, then one cart per user; ARGV: user IDs
+    private static final RedisScript<Long> EVICT_UNCHANGED_SCRIPT = new DefaultRedisScript<>("""
+            local evicted = 0
+            for i, id in ipairs(ARGV) do
+                if redis.call('SISMEMBER', KEYS[1], id) == 0 and not redis.call('ZSCORE', KEYS[2], id) then
+                    evicted = evicted + redis.call('DEL', KEYS[i + 2])
+                end
+            end
+            return evicted
+            """, Long.class);
+
+    // KEYS: cart, [dirty]; ARGV: quantity field, line field, quantity, line, ttl, user ID
+    private static final RedisScript<List> ADD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {} end
+            redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[3])
+            redis.call('HSET', KEYS[1], ARGV[2], ARGV[4])
+            redis.call('EXPIRE', KEYS[1], ARGV[5])
+            if KEYS[2] then redis.call('SADD', KEYS[2], ARGV[6]) end
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    // Same arguments as ADD_SCRIPT; leaves the cart unchanged if the product is not in it
+    private static final RedisScript<List> SET_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {} end
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1 then
+                redis.call('HSET', KEYS[1], ARGV[1], ARGV[3], ARGV[2], ARGV[4])
+                redis.call('EXPIRE', KEYS[1], ARGV[5])
+                if KEYS[2] then redis.call('SADD', KEYS[2], ARGV[6]) end
+            end
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    // KEYS: cart, [dirty]; ARGV: quantity field, line field, ttl, user ID
+    private static final RedisScript<List> REMOVE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {} end
+            if redis.call('HDEL', KEYS[1], ARGV[1], ARGV[2]) > 0 and KEYS[2] then
+                redis.call('SADD', KEYS[2], ARGV[4])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    // KEYS: cart, [dirty]; ARGV: ttl, user ID, then a quantity field, line field and quantity per product
+    private static final RedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {} end
+            local changed = false
+            for i = 3, #ARGV, 3 do
+                local quantity = tonumber(redis.call('HGET', KEYS[1], ARGV[i]))
+                if quantity then
+                    local left = quantity - tonumber(ARGV[i + 2])
+                    if left > 0 then
+                        redis.call('HSET', KEYS[1], ARGV[i], left)
+                    else
+                        redis.call('HDEL', KEYS[1], ARGV[i], ARGV[i + 1])
+                    end
+                    changed = true
+                end
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            if changed and KEYS[2] then redis.call('SADD', KEYS[2], ARGV[2]) end
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    // KEYS: cart, [dirty]; ARGV: ID field, ttl, user ID, then alternating fields and values
+    private static final RedisScript<List> REPLACE_SCRIPT = new DefaultRedisScript<>("""
+            local id = redis.call('HGET', KEYS[1], ARGV[1])
+            redis.call('DEL', KEYS[1])
+            if id then
+                redis.call('HSET', KEYS[1], ARGV[1], id, unpack(ARGV, 4))
+                redis.call('EXPIRE', KEYS[1], ARGV[2])
+                if KEYS[2] then redis.call('SADD', KEYS[2], ARGV[3]) end
+            end
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean writeBehindEnabled;
+
+    public CartStoreService(StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${app.cart.write-behind.enabled:true}") boolean writeBehindEnabled) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+
+    /**
+     * A cart as read from Redis
+     * @param cartId the ID of the cart row
+     * @param lines the cart lines, in product ID order
+     */
+    public record StoredCart(Long cartId, List<CartLine> lines) {
+
+        public Optional<CartLine> findLine(Long productId) {
+            return lines.stream().filter(line -> line.getProductId().equals(productId)).findFirst();
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    /**
+     * Read a user's cart
+     * @param userId the user ID
+     * @return the cart, or empty if it is not loaded in Redis
+     */
+    public Optional<StoredCart> find(Long userId) {
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(cartKey(userId));
+        return toCart(hash);
+    }
+
+    /**
+     * Load a user's cart into Redis, replacing whatever is stored
+     * @param userId the user ID
+     * @param cartId the ID of the cart row
+     * @param lines the cart lines
+     * @return the stored cart
+     */
+    public StoredCart load(Long userId, Long cartId, List<CartLine> lines) {
+        // Replaced in one script, so a concurrent update never sees the cart missing or half loaded
+        List<String> args = new ArrayList<>(List.of(ttlSeconds(), ID_FIELD, cartId.toString()));
+        for (CartLine line : lines) {
+            args.add(QUANTITY_PREFIX + line.getProductId());
+            args.add(line.getQuantity().toString());
+            args.add(LINE_PREFIX + line.getProductId());
+            args.add(toJson(line));
+        }
+
+        redisTemplate.execute(LOAD_SCRIPT, List.of(cartKey(userId)), (Object[]) args.toArray(String[]::new));
+        return new StoredCart(cartId, sorted(lines));
+    }
+
+    /**
+     * Add a quantity of a product to a user's cart, refreshing the product snapshot
+     * @param userId the user ID
+     * @param line the product snapshot
+     * @param quantity the quantity to add
+     * @return the updated cart, or empty if the cart is not loaded in Redis
+     */
+    public Optional<StoredCart> add(Long userId, CartLine line, int quantity) {
+        return run(ADD_SCRIPT, userId,
+                QUANTITY_PREFIX + line.getProductId(), LINE_PREFIX + line.getProductId(),
+                Integer.toString(quantity), toJson(line), ttlSeconds(), userId.toString());
+    }
+
+    /**
+     * Set the quantity of a product already in a user's cart, refreshing the product snapshot
+     * @param userId the user ID
+     * @param line the product snapshot
+     * @param quantity the new quantity
+     * @return the cart, unchanged if the product was not in it, or empty if the cart is not loaded in Redis
+     */
+    public Optional<StoredCart> setQuantity(Long userId, CartLine line, int quantity) {
+        return run(SET_SCRIPT, userId,
+                QUANTITY_PREFIX + line.getProductId(), LINE_PREFIX + line.getProductId(),
+                Integer.toString(quantity), toJson(line), ttlSeconds(), userId.toString());
+    }
+
+    /**
+     * Remove a product from a user's cart
+     * @param userId the user ID
+     * @param productId the product ID
+     * @return the updated cart, or empty if the cart is not loaded in Redis
+     */
+    public Optional<StoredCart> remove(Long userId, Long productId) {
+        return run(REMOVE_SCRIPT, userId,
+                QUANTITY_PREFIX + productId, LINE_PREFIX + productId, ttlSeconds(), userId.toString());
+    }
+
+    /**
+     * Replace the lines of a user's cart, keeping its ID
+     * @param userId the user ID
+     * @param lines the new cart lines, empty to clear the cart
+     * @return the updated cart, or empty if the cart is not loaded in Redis
+     */
+    public Optional<StoredCart> replace(Long userId, List<CartLine> lines) {
+        List<String> args = new ArrayList<>(List.of(ID_FIELD, ttlSeconds(), userId.toString()));
+        for (CartLine line : lines) {
+            args.add(QUANTITY_PREFIX + line.getProductId());
+            args.add(line.getQuantity().toString());
+            args.add(LINE_PREFIX + line.getProductId());
+            args.add(toJson(line));
+        }
+        return run(REPLACE_SCRIPT, userId, args.toArray(String[]::new));
+    }
+
+    /**
+     * Take bought quantities out of a user's cart, leaving anything added since it was read
+     * @param userId the user ID
+     * @param quantities the bought quantity by product ID
+     * @return the updated cart, or empty if the cart is not loaded in Redis
+     */
+    public Optional<StoredCart> take(Long userId, Map<Long, Integer> quantities) {
+        List<String> args = new ArrayList<>(List.of(ttlSeconds(), userId.toString()));
+        quantities.forEach((productId, quantity) -> {
+            args.add(QUANTITY_PREFIX + productId);
+            args.add(LINE_PREFIX + productId);
+            args.add(quantity.toString());
+        });
+        return run(TAKE_SCRIPT, userId, args.toArray(String[]::new));
+    }
+
+    /**
+     * Claim up to count users whose carts changed since they were last written behind
+     * A cart changed again while it is being written is marked dirty anew and written on a later run.
+     * Claims are held until {@link #completeDirty} or {@link #releaseDirty}, or until their lease expires.
+     * @param count the maximum number of users
+     * @return the user IDs
+     */
+    public List<Long> claimDirty(int count) {
+        long now = System.currentTimeMillis();
+        List<?> members = redisTemplate.execute(CLAIM_DIRTY_SCRIPT, List.of(DIRTY_KEY, WRITING_KEY),
+                Integer.toString(count), Long.toString(now), Long.toString(now - WRITE_LEASE.toMillis()));
+        return members == null ? List.of() : members.stream().map(member -> Long.valueOf(member.toString())).toList();
+    }
+
+    /**
+     * Drop the claims of carts whose write behind committed
+     * @param userIds the user IDs
+     */
+    public void completeDirty(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            redisTemplate.opsForZSet().remove(WRITING_KEY, userIds.stream().map(String::valueOf).toArray());
+        }
+    }
+
+    /**
+     * Mark claimed carts as changed again, e.g. after writing them behind failed
+     * @param userIds the user IDs
+     */
+    public void releaseDirty(Set<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            redisTemplate.execute(RELEASE_DIRTY_SCRIPT, List.of(DIRTY_KEY, WRITING_KEY),
+                    userIds.stream().map(String::valueOf).toArray());
+        }
+    }
+
+    /**
+     * Drop the carts of the given users from Redis, so they are reloaded from the database, except carts
+     * with changes that are still to be written behind
+     * @param userIds the user IDs
+     */
+    public void evictUnchanged(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            List<String> keys = new ArrayList<>(List.of(DIRTY_KEY, WRITING_KEY));
+            userIds.forEach(userId -> keys.add(cartKey(userId)));
+            redisTemplate.execute(EVICT_UNCHANGED_SCRIPT, keys, userIds.stream().map(String::valueOf).toArray());
+        }
+    }
+
+    private Optional<StoredCart> run(RedisScript<List> script, Long userId, String... args) {
+        List<String> keys = writeBehindEnabled ? List.of(cartKey(userId), DIRTY_KEY) : List.of(cartKey(userId));
+        List<?> result = redisTemplate.execute(script, keys, (Object[]) args);
+
+        Map<Object, Object> hash = new HashMap<>();
+        for (int i = 0; result != null && i + 1 < result.size(); i += 2) {
+            hash.put(result.get(i), result.get(i + 1));
+        }
+        return toCart(hash);
+    }
+
+    private Optional<StoredCart> toCart(Map<Object, Object> hash) {
+        Object cartId = hash.get(ID_FIELD);
+        if (cartId == null) {
+            return Optional.empty();
+        }
+
+        List<CartLine> lines = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : hash.entrySet()) {
+            String field = entry.getKey().toString();
+            if (!field.startsWith(LINE_PREFIX)) {
+                continue;
+            }
+            Object quantity = hash.get(QUANTITY_PREFIX + field.substring(LINE_PREFIX.length()));
+            if (quantity == null) {
+                continue;
+            }
+            CartLine line = fromJson(entry.getValue().toString());
+            line.setQuantity(Integer.valueOf(quantity.toString()));
+            lines.add(line);
+        }
+        return Optional.of(new StoredCart(Long.valueOf(cartId.toString()), sorted(lines)));
+    }
+
+    private static List<CartLine> sorted(List<CartLine> lines) {
+        List<CartLine> sorted = new ArrayList<>(lines);
+        sorted.sort(Comparator.comparing(CartLine::getProductId));
+        return sorted;
+    }
+
+    private String toJson(CartLine line) {
+        try {
+            return objectMapper.writeValueAsString(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cart line", e);
+        }
+    }
+
+    private CartLine fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, CartLine.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not deserialize cart line", e);
+        }
+    }
+
+    private static String ttlSeconds() {
+        return Long.toString(CART_TTL.toSeconds());
+    }
+
+    private static String cartKey(Long userId) {
+        return "cart:" + userId;
+    }
+}
@@ -0,0 +1,211 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.util.Transactions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through caches of products and users for paths that only read them.
+ * Cached entities are detached snapshots, loaded with the associations those paths render, and must
+ * never be modified or saved; write paths keep loading through the repositories. Misses are loaded in a
+ * persistence context of their own, on the caller's connection, so the cached instance is never one the
+ * caller is working with. Entries expire after a TTL and are evicted once any transaction that updated or
+ * deleted the entity ends. Hit rates are published through actuator as the {@code cache.gets} metric
+ * of the {@code products} and {@code users} caches.
+ */
+@Service
+public class EntityCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Cache<Long, Product> products;
+    private final Cache<Long, User> users;
+    // Login identifier (email or phone number) -> user ID, for the per-request principal lookup
+    private final Cache<String, Long> userIds;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.products.max-size:10000}") long productsMaxSize,
+                              @Value("${app.cache.products.ttl:60s}") Duration productsTtl,
+                              @Value("${app.cache.users.max-size:10000}") long usersMaxSize,
+                              @Value("${app.cache.users.ttl:5m}") Duration usersTtl) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(usersTtl)
+                .recordStats()
+                .build();
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(usersTtl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    /**
+     * Evict cached products and users whenever a transaction that updated or deleted them through the
+     * persistence context ends, whichever code path made the change; bulk updates evict explicitly
+     */
+    @PostConstruct
+    void evictOnCommittedChanges() {
+        EvictionListener listener = new EvictionListener();
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * Get a product with its seller and current bidder, loading it on a cache miss
+     * @param productId the product ID
+     * @return the detached product, or empty if it does not exist
+     */
+    public Optional<Product> findProduct(Long productId) {
+        return Optional.ofNullable(products.get(productId, id -> load(session -> {
+            EntityGraph<Product> withUsers = session.createEntityGraph(Product.class);
+            withUsers.addAttributeNodes("seller", "currentBidder");
+            return session.find(Product.class, id, Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, withUsers));
+        })));
+    }
+
+    /**
+     * Get a user, loading it on a cache miss
+     * @param userId the user ID
+     * @return the detached user, or empty if it does not exist
+     */
+    public Optional<User> findUser(Long userId) {
+        return Optional.ofNullable(users.get(userId, id -> load(session -> session.find(User.class, id))));
+    }
+
+    /**
+     * Get a user by email or phone number, loading it on a cache miss
+     * @param identifier the email or phone number
+     * @return the detached user, or empty if no user has the identifier
+     */
+    public Optional<User> findUserByIdentifier(String identifier) {
+        Long userId = userIds.getIfPresent(identifier);
+        User cached = userId != null ? users.getIfPresent(userId) : null;
+        // The identifier may have been taken off the user since it was mapped
+        if (cached != null && (identifier.equals(cached.getEmail()) || identifier.equals(cached.getPhoneNumber()))) {
+            return Optional.of(cached);
+        }
+
+        Optional<User> loaded = Optional.ofNullable(load(session -> session
+                .createSelectionQuery("FROM User u WHERE u.email = :identifier OR u.phoneNumber = :identifier", User.class)
+                .setParameter("identifier", identifier)
+                .uniqueResult()));
+        loaded.ifPresent(user -> {
+            users.put(user.getId(), user);
+            userIds.put(identifier, user.getId());
+        });
+        return loaded;
+    }
+
+    /**
+     * Evict a product once the surrounding transaction commits
+     * @param productId the product ID
+     */
+    public void evictProductAfterCommit(Long productId) {
+        Transactions.afterCommit(() -> products.invalidate(productId));
+    }
+
+    /**
+     * Evict a user once the surrounding transaction commits
+     * @param userId the user ID
+     */
+    public void evictUserAfterCommit(Long userId) {
+        Transactions.afterCommit(() -> users.invalidate(userId));
+    }
+
+    /**
+     * Load an entity in a short-lived persistence context, so it is detached once loaded and never shared
+     * with the caller's; inside a transaction it runs on the transaction's connection and sees its changes
+     */
+    private <T> T load(Function<Session, T> loader) {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        Session session = holder != null
+                ? holder.getEntityManager().unwrap(Session.class).sessionWithOptions()
+                        .connection()
+                        .flushMode(FlushMode.MANUAL)
+                        .openSession()
+                : entityManagerFactory.createEntityManager().unwrap(Session.class);
+        try (session) {
+            return loader.apply(session);
+        }
+    }
+
+    private class EvictionListener implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            Class<?> type = persister.getMappedClass();
+            return type == Product.class || type == User.class;
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            evict(event.getEntity(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // The change may have been read into the cache before the transaction rolled back
+            evict(event.getEntity(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            evict(event.getEntity(), event.getId());
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // The change may have been read into the cache before the transaction rolled back
+            evict(event.getEntity(), event.getId());
+        }
+
+        private void evict(Object entity, Object id) {
+            if (entity instanceof Product) {
+                products.invalidate((Long) id);
+            } else if (entity instanceof User) {
+                users.invalidate((Long) id);
+                userIds.asMap().values().removeIf(userId -> Objects.equals(userId, id));
+            }
+        }
+    }
+}
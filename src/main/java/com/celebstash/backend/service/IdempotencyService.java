@@ -0,0 +1,227 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.model.redis.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Makes retried requests safe by executing each (user, scope, Idempotency-Key) at most once.
+ * The first request claims the key in Redis and runs; its response is cached for a day and replayed to
+ * retries with the same body. Duplicates that arrive while the first is still running wait for its result
+ * instead of running again. Every claim carries a random token, and the claimant only releases or
+ * completes the key while it still holds that token, so a request that outlived its claim can never
+ * release or overwrite the claim of the retry that took over.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration RESPONSE_TTL = Duration.ofHours(24);
+    // Claims expire so a crashed request does not block its key forever
+    private static final Duration IN_PROGRESS_TTL = Duration.ofSeconds(60);
+    private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long POLL_INTERVAL_MS = 50;
+
+    // KEYS: record; ARGV: claim token
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local record = redis.call('GET', KEYS[1])
+            if record and cjson.decode(record).claimToken == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS: record; ARGV: claim token, completed record, ttl in seconds
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>("""
+            local record = redis.call('GET', KEYS[1])
+            if record and cjson.decode(record).claimToken == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Execute an action at most once per idempotency key
+     * @param scope the operation, e.g. "wallet-top-up"
+     * @param idempotencyKey the client-supplied key, or null to execute without protection
+     * @param request the request body, used to detect a key reused for a different request
+     * @param responseType the type of the response, used to replay a cached response
+     * @param action the action to execute
+     * @return the response of the first execution
+     */
+    public <T> T execute(String scope, String idempotencyKey, Object request, Class<T> responseType, Supplier<T> action) {
+        return execute(scope, idempotencyKey, () -> request, responseType, action);
+    }
+
+    /**
+     * Execute an action at most once per idempotency key, for requests identified by server-side state
+     * The request is read before the action and again after it, and a retry of the completed action matches
+     * either: a checkout identified by the cart contents, say, changes them, yet its retry must still replay.
+     * @param scope the operation, e.g. "cart-checkout"
+     * @param idempotencyKey the client-supplied key, or null to execute without protection
+     * @param request reads what identifies the request, used to detect a key reused for a different request
+     * @param responseType the type of the response, used to replay a cached response
+     * @param action the action to execute
+     * @return the response of the first execution
+     */
+    public <T> T execute(String scope, String idempotencyKey, Supplier<?> request, Class<T> responseType,
+                         Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw AppException.badRequest("Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = IdempotencyRecord.generateKey(scope, currentPrincipal(), idempotencyKey);
+        String fingerprint = fingerprint(request.get());
+        long deadline = System.nanoTime() + WAIT_TIMEOUT.toNanos();
+
+        while (true) {
+            String claimToken = UUID.randomUUID().toString();
+            IdempotencyRecord claim = IdempotencyRecord.builder()
+                    .fingerprint(fingerprint)
+                    .status(IdempotencyRecord.Status.IN_PROGRESS)
+                    .claimToken(claimToken)
+                    .build();
+
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, claim, IN_PROGRESS_TTL))) {
+                return executeAndRecord(key, claimToken, fingerprint, request, action);
+            }
+
+            IdempotencyRecord existing = (IdempotencyRecord) redisTemplate.opsForValue().get(key);
+            if (existing == null) {
+                // The first execution failed and released the key, try to claim it again
+                continue;
+            }
+            if (!existing.getFingerprint().equals(fingerprint) &&
+                !(existing.isCompleted() && fingerprint.equals(existing.getReplayFingerprint()))) {
+                throw new AppException("Idempotency-Key was already used for a different request",
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            if (existing.isCompleted()) {
+                log.debug("Replaying cached response for idempotency key {}", key);
+                return readResponse(existing.getResponseBody(), responseType);
+            }
+            if (System.nanoTime() > deadline) {
+                throw AppException.conflict("A request with this Idempotency-Key is still in progress");
+            }
+
+            sleep();
+        }
+    }
+
+    private <T> T executeAndRecord(String key, String claimToken, String fingerprint, Supplier<?> request,
+                                   Supplier<T> action) {
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Release the key so the client can retry the failed request, unless the claim expired meanwhile
+            runScript(RELEASE_SCRIPT, key, claimToken);
+            throw e;
+        }
+
+        IdempotencyRecord completed = IdempotencyRecord.builder()
+                .fingerprint(fingerprint)
+                .replayFingerprint(replayFingerprint(key, fingerprint, request))
+                .status(IdempotencyRecord.Status.COMPLETED)
+                .responseBody(writeJson(response))
+                .build();
+        byte[] serialized = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(completed);
+        if (runScript(COMPLETE_SCRIPT, key, claimToken, new String(serialized, StandardCharsets.UTF_8),
+                Long.toString(RESPONSE_TTL.toSeconds())) == 0) {
+            log.warn("Claim on idempotency key {} expired before its request completed", key);
+        }
+
+        return response;
+    }
+
+    // The request as a retry reads it once the action has run, if that differs from what it was before
+    private String replayFingerprint(String key, String fingerprint, Supplier<?> request) {
+        try {
+            String after = fingerprint(request.get());
+            return after.equals(fingerprint) ? null : after;
+        } catch (RuntimeException e) {
+            // The action succeeded, so its response is recorded regardless; only retries with the old request match
+            log.warn("Failed to read the request for idempotency key {} after it completed", key, e);
+            return null;
+        }
+    }
+
+    // Arguments are passed as plain strings rather than through the template's JSON value serializer
+    private long runScript(RedisScript<Long> script, String key, String... args) {
+        Long result = redisTemplate.execute(script, RedisSerializer.string(), new GenericToStringSerializer<>(Long.class),
+                List.of(key), (Object[]) args);
+        return result != null ? result : 0;
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AppException("Not authenticated", HttpStatus.UNAUTHORIZED);
+        }
+        return authentication.getName();
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw AppException.internalError("Failed to fingerprint request");
+        }
+    }
+
+    private String writeJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw AppException.internalError("Failed to record idempotent response");
+        }
+    }
+
+    private <T> T readResponse(String json, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw AppException.internalError("Failed to replay idempotent response");
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AppException.conflict("A request with this Idempotency-Key is still in progress");
+        }
+    }
+}
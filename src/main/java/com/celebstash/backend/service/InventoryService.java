@@ -0,0 +1,172 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.model.InventoryShard;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import com.celebstash.backend.repository.InventoryShardRepository;
+import com.celebstash.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Takes product stock for purchases.
+ * Stock is normally a single counter on the product row. For hot products an admin can split it across
+ * several {@link InventoryShard} rows; each buyer then starts at a random shard, so concurrent purchases
+ * update different rows instead of queuing on one. Shards are periodically rebalanced, which also
+ * refreshes the displayed stock of the product.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    public static final int MAX_SHARDS = 64;
+
+    private final ProductRepository productRepository;
+    private final InventoryShardRepository inventoryShardRepository;
+
+    /**
+     * Take stock of a product for a purchase, as part of the caller's transaction
+     * A large quantity may be taken from several shards; if that fails part way, the transaction is marked
+     * rollback-only.
+     * @param product the product, as loaded by the caller
+     * @param quantity the quantity to take
+     * @param now the time of the purchase
+     * @return true if the stock was taken, false if not enough remains or the product cannot be bought
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean takeStock(Product product, int quantity, LocalDateTime now) {
+        if (product.getInventoryShards() == 0) {
+            return productRepository.decrementStock(
+                    product.getId(), quantity, ProductType.REGULAR, ProductStatus.APPROVED, now) == 1;
+        }
+
+        if (product.getProductType() != ProductType.REGULAR || product.getStatus() != ProductStatus.APPROVED) {
+            return false;
+        }
+
+        int shards = product.getInventoryShards();
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (inventoryShardRepository.decrement(product.getId(), (start + i) % shards, quantity) == 1) {
+                return true;
+            }
+        }
+
+        // No single shard holds enough, take the quantity across all of them
+        return takeAcrossShards(product.getId(), quantity);
+    }
+
+    /**
+     * Get the stock a product has left, as currently stored, including the stock held by its shards
+     * @param productId the product ID
+     * @return the stock left, 0 if the product does not exist
+     */
+    @Transactional(readOnly = true)
+    public long getAvailableStock(Long productId) {
+        return productRepository.findAvailableStock(productId).orElse(0L);
+    }
+
+    /**
+     * Split the stock of a product across shards, or pool it back into the product row
+     * @param productId the product ID
+     * @param shards the number of shards, 0 or 1 to stop sharding
+     * @return the updated product
+     */
+    @Transactional
+    public Product reshard(Long productId, int shards) {
+        if (shards < 0 || shards > MAX_SHARDS) {
+            throw AppException.badRequest("Number of inventory shards must be between 0 and " + MAX_SHARDS);
+        }
+
+        // Blocks purchases from the product row while its stock moves
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
+
+        int stock = product.getStockQuantity();
+        if (product.getInventoryShards() > 0) {
+            stock = inventoryShardRepository.findByProductIdForUpdate(productId).stream()
+                    .mapToInt(InventoryShard::getQuantity)
+                    .sum();
+            inventoryShardRepository.deleteByProductId(productId);
+        }
+
+        int count = shards <= 1 ? 0 : shards;
+        if (count > 0) {
+            inventoryShardRepository.saveAll(distribute(productId, stock, count));
+        }
+
+        product.setStockQuantity(stock);
+        product.setInventoryShards(count);
+        log.info("Product {} inventory now uses {} shards for {} units", productId, count, stock);
+        return productRepository.save(product);
+    }
+
+    /**
+     * Spread the remaining stock of a sharded product evenly over its shards again, so that buyers
+     * do not keep hitting empty shards, and refresh the displayed stock of the product
+     * @param productId the product ID
+     * @return the total stock of the product
+     */
+    @Transactional
+    public int rebalance(Long productId) {
+        List<InventoryShard> shards = inventoryShardRepository.findByProductIdForUpdate(productId);
+        if (shards.isEmpty()) {
+            return 0;
+        }
+
+        int total = shards.stream().mapToInt(InventoryShard::getQuantity).sum();
+        int base = total / shards.size();
+        int remainder = total % shards.size();
+        for (InventoryShard shard : shards) {
+            shard.setQuantity(base + (shard.getShardIndex() < remainder ? 1 : 0));
+        }
+
+        productRepository.updateShardedStockQuantity(productId, total);
+        return total;
+    }
+
+    private boolean takeAcrossShards(Long productId, int quantity) {
+        // Shards are visited in index order, the same order rebalancing locks them in
+        int remaining = quantity;
+        for (InventoryShard shard : inventoryShardRepository.findByProductIdOrderByShardIndex(productId)) {
+            int take = Math.min(remaining, shard.getQuantity());
+            if (take > 0 && inventoryShardRepository.decrement(productId, shard.getShardIndex(), take) == 1) {
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                return true;
+            }
+        }
+
+        if (remaining < quantity) {
+            // Undo the shards already taken from
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return false;
+    }
+
+    private static List<InventoryShard> distribute(Long productId, int stock, int count) {
+        List<InventoryShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(InventoryShard.builder()
+                    .productId(productId)
+                    .shardIndex(i)
+                    .quantity(stock / count + (i < stock % count ? 1 : 0))
+                    .build());
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,315 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.ledger.WalletLedgerState;
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.model.LedgerCheckpoint;
+import com.celebstash.backend.model.LedgerEntry;
+import com.celebstash.backend.model.LedgerVerificationCheckpoint;
+import com.celebstash.backend.model.Wallet;
+import com.celebstash.backend.model.enums.LedgerAccount;
+import com.celebstash.backend.repository.LedgerCheckpointRepository;
+import com.celebstash.backend.repository.LedgerEntryRepository;
+import com.celebstash.backend.repository.LedgerVerificationCheckpointRepository;
+import com.celebstash.backend.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Double-entry ledger behind the wallet balances.
+ * Every money movement is posted as a journal of entries that sum to zero. The balance column on
+ * {@link Wallet} is a cache of the ledger balance, which is derived as the wallet's checkpoint plus
+ * the entries posted after it. Wallets funded before the ledger existed get an opening balance journal
+ * ahead of their first posting, or from the hourly reconciliation if they never post.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final LedgerVerificationCheckpointRepository ledgerVerificationCheckpointRepository;
+    private final WalletRepository walletRepository;
+
+    /**
+     * Record a wallet top-up
+     * @param walletId the wallet ID
+     * @param amount the amount added
+     * @param transactionId the deposit transaction ID
+     */
+    @Transactional
+    public void recordDeposit(Long walletId, BigDecimal amount, Long transactionId) {
+        post(transactionId,
+                walletPosting(walletId, amount),
+                systemPosting(LedgerAccount.EXTERNAL_FUNDS, amount.negate()));
+    }
+
+    /**
+     * Record one or more purchases paid from a wallet with one debit, as one journal
+     * The wallet posting carries the total; each sales posting carries its own purchase transaction.
+     * @param walletId the wallet ID
+     * @param amounts the amount paid by purchase transaction ID
+     */
+    @Transactional
+    public void recordPurchases(Long walletId, Map<Long, BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        List<LedgerEntry.LedgerEntryBuilder> postings = new ArrayList<>(amounts.size() + 1);
+        for (Map.Entry<Long, BigDecimal> amount : amounts.entrySet()) {
+            total = total.add(amount.getValue());
+            postings.add(systemPosting(LedgerAccount.SALES, amount.getValue()).transactionId(amount.getKey()));
+        }
+        postings.add(0, walletPosting(walletId, total.negate())
+                .transactionId(amounts.size() == 1 ? amounts.keySet().iterator().next() : null));
+        post(postings);
+    }
+
+    /**
+     * Record funds moved from a wallet into escrow for a bid
+     * @param walletId the wallet ID
+     * @param amount the bid amount
+     * @param transactionId the bid transaction ID
+     */
+    @Transactional
+    public void recordBidReservation(Long walletId, BigDecimal amount, Long transactionId) {
+        post(transactionId,
+                walletPosting(walletId, amount.negate()),
+                systemPosting(LedgerAccount.BID_ESCROW, amount));
+    }
+
+    /**
+     * Record escrowed bid funds returned to a wallet
+     * @param walletId the wallet ID
+     * @param amount the refunded amount
+     * @param transactionId the refund transaction ID
+     */
+    @Transactional
+    public void recordBidRefund(Long walletId, BigDecimal amount, Long transactionId) {
+        post(transactionId,
+                systemPosting(LedgerAccount.BID_ESCROW, amount.negate()),
+                walletPosting(walletId, amount));
+    }
+
+    /**
+     * Record escrowed funds of a winning bid moved to sales
+     * @param amount the winning bid amount
+     * @param transactionId the bid transaction ID
+     */
+    @Transactional
+    public void recordBidSettlement(BigDecimal amount, Long transactionId) {
+        post(transactionId,
+                systemPosting(LedgerAccount.BID_ESCROW, amount.negate()),
+                systemPosting(LedgerAccount.SALES, amount));
+    }
+
+    /**
+     * Get the ledger balance of a wallet as its checkpoint plus the entries posted after it
+     * @param walletId the wallet ID
+     * @return the ledger balance
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(Long walletId) {
+        LedgerCheckpoint checkpoint = ledgerCheckpointRepository.findById(walletId).orElse(null);
+        BigDecimal base = checkpoint != null ? checkpoint.getBalance() : BigDecimal.ZERO;
+        Long afterEntryId = checkpoint != null ? checkpoint.getLastEntryId() : 0L;
+        return base.add(ledgerEntryRepository.sumWalletEntriesAfter(walletId, afterEntryId));
+    }
+
+    /**
+     * Get the latest entry ID in the ledger
+     * @return the latest entry ID, or 0 if the ledger is empty
+     */
+    @Transactional(readOnly = true)
+    public Long getLatestEntryId() {
+        return ledgerEntryRepository.findMaxId();
+    }
+
+    /**
+     * Get the latest ID among the entries created before a given time
+     * Entry IDs are assigned on insert but committed in any order, so an entry below the latest ID may still
+     * become visible later; trailing the latest ID by a window leaves time for such entries to commit.
+     * @param cutoff the creation time bound, exclusive
+     * @return the latest entry ID, or 0 if there is none
+     */
+    @Transactional(readOnly = true)
+    public Long getLatestEntryIdBefore(LocalDateTime cutoff) {
+        return ledgerEntryRepository.findMaxIdCreatedBefore(cutoff);
+    }
+
+    /**
+     * Get how far a ledger-wide verification has got
+     * @param name the verification, e.g. {@link LedgerVerificationCheckpoint#BALANCED_JOURNALS}
+     * @return the last verified entry ID, or 0 if it has never run
+     */
+    @Transactional(readOnly = true)
+    public Long getVerifiedEntryId(String name) {
+        return ledgerVerificationCheckpointRepository.findById(name)
+                .map(LedgerVerificationCheckpoint::getLastEntryId)
+                .orElse(0L);
+    }
+
+    /**
+     * Record how far a ledger-wide verification has got
+     * @param name the verification, e.g. {@link LedgerVerificationCheckpoint#BALANCED_JOURNALS}
+     * @param lastEntryId the last verified entry ID
+     */
+    @Transactional
+    public void markVerified(String name, Long lastEntryId) {
+        ledgerVerificationCheckpointRepository.save(LedgerVerificationCheckpoint.builder()
+                .name(name)
+                .lastEntryId(lastEntryId)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Find journals with entries in the given range whose postings do not sum to zero
+     * @param afterEntryId exclusive lower bound of the entry range
+     * @param upToEntryId inclusive upper bound of the entry range
+     * @return the IDs of the unbalanced journals
+     */
+    @Transactional(readOnly = true)
+    public List<String> findUnbalancedJournals(Long afterEntryId, Long upToEntryId) {
+        return ledgerEntryRepository.findUnbalancedJournals(afterEntryId, upToEntryId);
+    }
+
+    /**
+     * Read the cached and ledger balances of the next batch of wallets, ordered by wallet ID
+     * @param afterWalletId the last wallet ID of the previous batch, or 0 to start
+     * @param batchSize the maximum number of wallets to return
+     * @return the wallet states
+     */
+    @Transactional(readOnly = true)
+    public List<WalletLedgerState> findWalletStates(Long afterWalletId, int batchSize) {
+        return ledgerEntryRepository.findWalletStatesAfter(afterWalletId, PageRequest.of(0, batchSize));
+    }
+
+    /**
+     * Move the checkpoints of verified wallets up to their latest entry
+     * @param states wallet states whose cached and ledger balances match
+     * @return the number of checkpoints written
+     */
+    @Transactional
+    public int advanceCheckpoints(List<WalletLedgerState> states) {
+        List<LedgerCheckpoint> checkpoints = new ArrayList<>();
+        for (WalletLedgerState state : states) {
+            if (state.hasEntries() && !state.lastEntryId().equals(state.checkpointEntryId())) {
+                checkpoints.add(LedgerCheckpoint.builder()
+                        .walletId(state.walletId())
+                        .balance(state.ledgerBalance())
+                        .lastEntryId(state.lastEntryId())
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            }
+        }
+        ledgerCheckpointRepository.saveAll(checkpoints);
+        return checkpoints.size();
+    }
+
+    /**
+     * Post an opening balance for a wallet that was funded before the ledger existed
+     * The wallet row is locked so no concurrent balance change can slip in between
+     * @param walletId the wallet ID
+     * @return true if an opening balance was posted
+     */
+    @Transactional
+    public boolean openLegacyBalance(Long walletId) {
+        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+                .orElseThrow(() -> new AppException("Wallet not found", HttpStatus.NOT_FOUND));
+
+        if (wallet.getBalance().signum() == 0 || ledgerEntryRepository.existsByWalletId(walletId)) {
+            return false;
+        }
+
+        append(List.of(
+                walletPosting(walletId, wallet.getBalance()),
+                systemPosting(LedgerAccount.OPENING_BALANCE, wallet.getBalance().negate())));
+        log.info("Posted opening ledger balance {} for wallet {}", wallet.getBalance(), walletId);
+        return true;
+    }
+
+    /**
+     * Append a balanced journal to the ledger
+     * @param transactionId the wallet transaction the journal belongs to, if any
+     * @param postings the postings, which must sum to zero
+     */
+    private void post(Long transactionId, LedgerEntry.LedgerEntryBuilder... postings) {
+        for (LedgerEntry.LedgerEntryBuilder posting : postings) {
+            posting.transactionId(transactionId);
+        }
+        post(List.of(postings));
+    }
+
+    /**
+     * Append a balanced journal to the ledger
+     * @param postings the postings, which must sum to zero, each with its transaction ID if any
+     */
+    private void post(List<LedgerEntry.LedgerEntryBuilder> postings) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (LedgerEntry.LedgerEntryBuilder posting : postings) {
+            total = total.add(posting.build().getAmount());
+        }
+        if (total.signum() != 0) {
+            throw new AppException("Ledger journal does not balance", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        for (LedgerEntry.LedgerEntryBuilder posting : postings) {
+            LedgerEntry entry = posting.build();
+            if (entry.getWalletId() != null) {
+                openLegacyBalanceBefore(entry.getWalletId(), entry.getAmount());
+            }
+        }
+        append(postings);
+    }
+
+    /**
+     * Write a journal that is known to balance
+     * @param postings the postings, each with its transaction ID if any
+     */
+    private void append(List<LedgerEntry.LedgerEntryBuilder> postings) {
+        String journalId = UUID.randomUUID().toString();
+        List<LedgerEntry> entries = new ArrayList<>(postings.size());
+        for (LedgerEntry.LedgerEntryBuilder posting : postings) {
+            entries.add(posting.journalId(journalId).build());
+        }
+        ledgerEntryRepository.saveAll(entries);
+    }
+
+    /**
+     * Post the opening balance of a wallet funded before the ledger existed, ahead of its first posting
+     * Every posting follows the balance change it records in the same transaction, so the wallet row is
+     * locked and its balance already includes the change; the balance before it is what the ledger lacks.
+     * @param walletId the wallet ID
+     * @param change the amount of the wallet posting about to be made
+     */
+    private void openLegacyBalanceBefore(Long walletId, BigDecimal change) {
+        if (ledgerEntryRepository.existsByWalletId(walletId)) {
+            return;
+        }
+        BigDecimal opening = walletRepository.findBalanceById(walletId).subtract(change);
+        if (opening.signum() != 0) {
+            append(List.of(
+                    walletPosting(walletId, opening),
+                    systemPosting(LedgerAccount.OPENING_BALANCE, opening.negate())));
+            log.info("Posted opening ledger balance {} for wallet {}", opening, walletId);
+        }
+    }
+
+    private static LedgerEntry.LedgerEntryBuilder walletPosting(Long walletId, BigDecimal amount) {
+        return LedgerEntry.builder().account(LedgerAccount.WALLET).walletId(walletId).amount(amount);
+    }
+
+    private static LedgerEntry.LedgerEntryBuilder systemPosting(LedgerAccount account, BigDecimal amount) {
+        return LedgerEntry.builder().account(account).amount(amount);
+    }
+}
@@ -0,0 +1,187 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.model.enums.LikeableType;
+import com.celebstash.backend.repository.LegacyLikeRepository;
+import com.celebstash.backend.repository.LikeRepository;
+import com.celebstash.backend.util.Transactions;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Likes of posts, comments and stories, all kept in the likes table keyed by (user, type, item).
+ * The unique key answers "does this user like these items" and a second index covering
+ * (type, item, user) answers counts, so neither ever loads a collection.
+ * Databases created before the likes table was used for posts and comments still hold likes in the legacy
+ * post_likes and comment_likes join tables until {@link com.celebstash.backend.scheduler.LikeMigrationJob}
+ * has moved them. Until then every read also consults the join table, and every write first moves the
+ * user's legacy like of the item, so a like is never counted twice, lost or brought back.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikeService {
+
+    private static final LikeableType[] LEGACY_TYPES = {LikeableType.POST, LikeableType.COMMENT};
+
+    private final LikeRepository likeRepository;
+    private final LegacyLikeRepository legacyLikeRepository;
+
+    // Types whose join table may still hold likes
+    private final Set<LikeableType> legacyTypes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Find out which types still have likes in their legacy join table
+     * Runs before any request is served, so no read or write misses a legacy like; each check is a
+     * single statement, so it needs no transaction.
+     */
+    @PostConstruct
+    public void detectLegacyLikes() {
+        for (LikeableType type : LEGACY_TYPES) {
+            if (legacyLikeRepository.hasLikes(type)) {
+                legacyTypes.add(type);
+                log.info("Found legacy {} likes still to be migrated", type);
+            } else {
+                legacyTypes.remove(type);
+            }
+        }
+    }
+
+    /**
+     * Check whether any legacy likes are still to be migrated
+     * Counts recomputed from the likes table alone are wrong until they are.
+     * @return true if the migration has not finished
+     */
+    public boolean isLegacyMigrationPending() {
+        return !legacyTypes.isEmpty();
+    }
+
+    /**
+     * Check whether legacy likes of a type are still to be migrated
+     * @param likeableType the type of the items
+     * @return true if the migration of the type has not finished
+     */
+    public boolean isLegacyMigrationPending(LikeableType likeableType) {
+        return legacyTypes.contains(likeableType);
+    }
+
+    /**
+     * Like an item; liking it again has no effect
+     * @param userId the user ID
+     * @param likeableType the type of the item
+     * @param likeableId the item ID
+     * @return true if the like is new
+     */
+    @Transactional
+    public boolean like(Long userId, LikeableType likeableType, Long likeableId) {
+        // A legacy like is moved into the likes table rather than counted as new; deleting it first waits
+        // for a migration batch holding it, after which the insert finds the copy
+        boolean movedLegacy = legacyTypes.contains(likeableType) &&
+                              legacyLikeRepository.delete(userId, likeableType, likeableId) == 1;
+        boolean inserted = likeRepository.insertIfAbsent(userId, likeableType.name(), likeableId, LocalDateTime.now()) == 1;
+        return inserted && !movedLegacy;
+    }
+
+    /**
+     * Remove a like; removing one that does not exist has no effect
+     * @param userId the user ID
+     * @param likeableType the type of the item
+     * @param likeableId the item ID
+     * @return true if there was a like to remove
+     */
+    @Transactional
+    public boolean unlike(Long userId, LikeableType likeableType, Long likeableId) {
+        boolean deletedLegacy = legacyTypes.contains(likeableType) &&
+                                legacyLikeRepository.delete(userId, likeableType, likeableId) == 1;
+        return likeRepository.deleteByIds(userId, likeableType, likeableId) == 1 || deletedLegacy;
+    }
+
+    /**
+     * Remove all likes of an item, e.g. when it is deleted
+     * @param likeableType the type of the item
+     * @param likeableId the item ID
+     */
+    @Transactional
+    public void removeAll(LikeableType likeableType, Long likeableId) {
+        if (legacyTypes.contains(likeableType)) {
+            legacyLikeRepository.deleteAllOf(likeableType, likeableId);
+        }
+        likeRepository.deleteAllOf(likeableType, likeableId);
+    }
+
+    /**
+     * Remove all likes of a post and of its comments and replies, e.g. when the post is deleted
+     * @param postId the post ID
+     */
+    @Transactional
+    public void removeAllOfPost(Long postId) {
+        removeAll(LikeableType.POST, postId);
+        if (legacyTypes.contains(LikeableType.COMMENT)) {
+            legacyLikeRepository.deleteAllOfCommentsOf(postId);
+        }
+        likeRepository.deleteAllOfCommentsOf(postId);
+    }
+
+    /**
+     * Find which of a batch of items a user likes, in one query
+     * @param userId the user ID
+     * @param likeableType the type of the items
+     * @param likeableIds the item IDs
+     * @return IDs of the liked items
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findLikedIds(Long userId, LikeableType likeableType, Collection<Long> likeableIds) {
+        if (likeableIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> likedIds = likeRepository.findLikedIds(userId, likeableType, likeableIds);
+        if (legacyTypes.contains(likeableType)) {
+            likedIds = new HashSet<>(likedIds);
+            likedIds.addAll(legacyLikeRepository.findLikedIds(userId, likeableType, likeableIds));
+        }
+        return likedIds;
+    }
+
+    /**
+     * Count the likes of an item
+     * @param likeableType the type of the item
+     * @param likeableId the item ID
+     * @return number of likes
+     */
+    @Transactional(readOnly = true)
+    public long countLikes(LikeableType likeableType, Long likeableId) {
+        long count = likeRepository.countByLikeableTypeAndLikeableId(likeableType, likeableId);
+        if (legacyTypes.contains(likeableType)) {
+            count += legacyLikeRepository.count(likeableType, likeableId);
+        }
+        return count;
+    }
+
+    /**
+     * Move a batch of likes from the legacy post_likes or comment_likes join table into the likes table
+     * @param likeableType POST or COMMENT
+     * @param limit the maximum number of likes
+     * @return number of likes moved; 0 once the join table is empty, which ends the migration of the type
+     */
+    @Transactional
+    public int migrateLegacyLikes(LikeableType likeableType, int limit) {
+        if (!legacyTypes.contains(likeableType)) {
+            return 0;
+        }
+        int moved = legacyLikeRepository.moveBatch(likeableType, limit, LocalDateTime.now());
+        if (moved == 0) {
+            // Nothing adds to the join table any more, so the type stays migrated; the flag is dropped
+            // only once this transaction has committed
+            Transactions.afterCommit(() -> legacyTypes.remove(likeableType));
+        }
+        return moved;
+    }
+}
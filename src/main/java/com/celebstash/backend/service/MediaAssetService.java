@@ -0,0 +1,190 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.media.MediaAssetResponse;
+import com.celebstash.backend.dto.media.PendingMediaAsset;
+import com.celebstash.backend.media.MediaProbe;
+import com.celebstash.backend.model.MediaAsset;
+import com.celebstash.backend.model.Post;
+import com.celebstash.backend.model.Story;
+import com.celebstash.backend.model.enums.MediaRole;
+import com.celebstash.backend.model.enums.MediaStatus;
+import com.celebstash.backend.repository.MediaAssetRepository;
+import com.celebstash.backend.repository.PostRepository;
+import com.celebstash.backend.repository.StoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Database side of media ingestion: creating the asset rows of a post or story, handing out the ones still
+ * to be processed and recording what processing found.
+ * The media status of a post or story is only ever written with a targeted update so that ingestion
+ * never overwrites concurrent changes to the rest of the row.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaAssetService {
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final PostRepository postRepository;
+    private final StoryRepository storyRepository;
+
+    /**
+     * Owner of a set of media assets
+     */
+    public enum OwnerType {
+        POST,
+        STORY
+    }
+
+    /**
+     * Create the pending assets of a new post: its video followed by its photos
+     * @param post the saved post
+     * @return the created assets
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<MediaAsset> createAssets(Post post) {
+        List<MediaAsset> assets = new ArrayList<>();
+        assets.add(MediaAsset.builder().post(post).role(MediaRole.VIDEO).position(0).sourceUrl(post.getVideoUrl()).build());
+        List<String> photoUrls = post.getPhotoUrls();
+        for (int i = 0; i < photoUrls.size(); i++) {
+            assets.add(MediaAsset.builder().post(post).role(MediaRole.PHOTO).position(i).sourceUrl(photoUrls.get(i)).build());
+        }
+        return mediaAssetRepository.saveAll(assets);
+    }
+
+    /**
+     * Create the pending asset of a new story
+     * @param story the saved story
+     * @return the created assets
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<MediaAsset> createAssets(Story story) {
+        return List.of(mediaAssetRepository.save(
+                MediaAsset.builder().story(story).role(MediaRole.STORY).position(0).sourceUrl(story.getMediaUrl()).build()));
+    }
+
+    /**
+     * Get the assets of an owner that still have to be processed
+     * @param type the owner type
+     * @param ownerId the post or story ID
+     * @return the pending assets
+     */
+    @Transactional(readOnly = true)
+    public List<PendingMediaAsset> getPendingAssets(OwnerType type, Long ownerId) {
+        return type == OwnerType.POST
+                ? mediaAssetRepository.findPendingByPostId(ownerId, MediaStatus.PENDING)
+                : mediaAssetRepository.findPendingByStoryId(ownerId, MediaStatus.PENDING);
+    }
+
+    /**
+     * Record probe results and derive the media status of the owner:
+     * failed if any asset failed, ready once every asset is ready, pending otherwise
+     * @param type the owner type
+     * @param ownerId the post or story ID
+     * @param results probe results by asset ID
+     * @return the media status of the owner
+     */
+    @Transactional
+    public MediaStatus recordResults(OwnerType type, Long ownerId, Map<Long, MediaProbe.Result> results) {
+        LocalDateTime now = LocalDateTime.now();
+        for (MediaAsset asset : mediaAssetRepository.findAllById(results.keySet())) {
+            MediaProbe.Result result = results.get(asset.getId());
+            asset.setStatus(result.valid() ? MediaStatus.READY : MediaStatus.FAILED);
+            asset.setContentType(result.contentType());
+            asset.setWidth(result.width());
+            asset.setHeight(result.height());
+            asset.setDurationMillis(result.durationMillis());
+            asset.setSizeBytes(result.sizeBytes());
+            asset.setThumbnailUrl(result.thumbnailUrl());
+            asset.setFailureReason(truncate(result.failureReason(), 500));
+            asset.setProcessedAt(now);
+        }
+        mediaAssetRepository.flush();
+
+        MediaStatus status;
+        if (type == OwnerType.POST) {
+            status = statusOf(mediaAssetRepository.countByPostIdAndStatus(ownerId, MediaStatus.FAILED),
+                              mediaAssetRepository.countByPostIdAndStatus(ownerId, MediaStatus.PENDING));
+            postRepository.updateMediaStatus(ownerId, status);
+        } else {
+            status = statusOf(mediaAssetRepository.countByStoryIdAndStatus(ownerId, MediaStatus.FAILED),
+                              mediaAssetRepository.countByStoryIdAndStatus(ownerId, MediaStatus.PENDING));
+            storyRepository.updateMediaStatus(ownerId, status);
+        }
+        return status;
+    }
+
+    /**
+     * Find owners whose media has been pending since before a cutoff, e.g. because the queue was full
+     * or the server restarted before processing them
+     * @param type the owner type
+     * @param before the cutoff
+     * @param limit the maximum number of owners
+     * @return the post or story IDs
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findStalePending(OwnerType type, LocalDateTime before, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return type == OwnerType.POST
+                ? mediaAssetRepository.findPostIdsWithStatusBefore(MediaStatus.PENDING, before, page)
+                : mediaAssetRepository.findStoryIdsWithStatusBefore(MediaStatus.PENDING, before, page);
+    }
+
+    /**
+     * Get the media of a page of posts in one query
+     * @param postIds the post IDs
+     * @return media responses by post ID, in display order; posts without media are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<MediaAssetResponse>> getPostMedia(Collection<Long> postIds) {
+        Map<Long, List<MediaAssetResponse>> media = new HashMap<>();
+        for (MediaAsset asset : mediaAssetRepository.findByPostIdInOrderByRoleAscPositionAsc(postIds)) {
+            media.computeIfAbsent(asset.getPost().getId(), id -> new ArrayList<>()).add(toResponse(asset));
+        }
+        return media;
+    }
+
+    /**
+     * Map a media asset to its response DTO
+     * @param asset the media asset
+     * @return the media asset response
+     */
+    public static MediaAssetResponse toResponse(MediaAsset asset) {
+        return MediaAssetResponse.builder()
+                .id(asset.getId())
+                .role(asset.getRole())
+                .position(asset.getPosition())
+                .sourceUrl(asset.getSourceUrl())
+                .status(asset.getStatus())
+                .contentType(asset.getContentType())
+                .width(asset.getWidth())
+                .height(asset.getHeight())
+                .durationMillis(asset.getDurationMillis())
+                .sizeBytes(asset.getSizeBytes())
+                .thumbnailUrl(asset.getThumbnailUrl())
+                .failureReason(asset.getFailureReason())
+                .processedAt(asset.getProcessedAt())
+                .build();
+    }
+
+    private static MediaStatus statusOf(long failed, long pending) {
+        if (failed > 0) {
+            return MediaStatus.FAILED;
+        }
+        return pending > 0 ? MediaStatus.PENDING : MediaStatus.READY;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
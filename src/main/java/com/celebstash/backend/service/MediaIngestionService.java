@@ -0,0 +1,202 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.media.PendingMediaAsset;
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.media.MediaProbe;
+import com.celebstash.backend.media.MediaProbe.MediaKind;
+import com.celebstash.backend.model.MediaAsset;
+import com.celebstash.backend.model.Post;
+import com.celebstash.backend.model.Story;
+import com.celebstash.backend.model.enums.MediaStatus;
+import com.celebstash.backend.model.enums.StoryType;
+import com.celebstash.backend.service.MediaAssetService.OwnerType;
+import com.celebstash.backend.util.Transactions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes the media of new posts and stories off the request thread.
+ * Creating a post or story only checks that its URLs are well-formed and records them as pending assets;
+ * once the transaction commits, a bounded pool of workers fetches each URL, records its content type,
+ * size, dimensions, duration and thumbnail, and marks the post or story ready or failed.
+ * When the queue is full the work is not dropped: the assets stay pending and a periodic sweep picks them up.
+ */
+@Slf4j
+@Service
+public class MediaIngestionService {
+
+    // Assets younger than this may still be queued and are left alone by the sweep
+    private static final long STALE_AFTER_SECONDS = 120;
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final MediaAssetService mediaAssetService;
+    private final MediaProbe mediaProbe;
+    private final ThreadPoolExecutor executor;
+
+    // Owners queued or being processed, so the sweep does not queue them twice
+    private final Set<Job> inFlight = ConcurrentHashMap.newKeySet();
+
+    public MediaIngestionService(MediaAssetService mediaAssetService,
+                                 MediaProbe mediaProbe,
+                                 @Value("${app.media.workers:4}") int workers,
+                                 @Value("${app.media.queue-capacity:1000}") int queueCapacity) {
+        this.mediaAssetService = mediaAssetService;
+        this.mediaProbe = mediaProbe;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-ingestion-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Validate the media URLs of a new post, record them as pending and queue them for processing
+     * once the surrounding transaction commits
+     * @param post the saved post
+     * @throws AppException if a URL is malformed
+     */
+    public void register(Post post) {
+        validate(post.getVideoUrl());
+        post.getPhotoUrls().forEach(this::validate);
+
+        List<MediaAsset> assets = mediaAssetService.createAssets(post);
+        post.setMedia(new ArrayList<>(assets));
+        post.setMediaStatus(MediaStatus.PENDING);
+        Transactions.afterCommit(() -> submit(new Job(OwnerType.POST, post.getId())));
+    }
+
+    /**
+     * Validate the media URL of a new story, record it as pending and queue it for processing
+     * once the surrounding transaction commits; text stories have no media
+     * @param story the saved story
+     * @throws AppException if the URL is malformed
+     */
+    public void register(Story story) {
+        if (story.getType() == StoryType.TEXT) {
+            return;
+        }
+        validate(story.getMediaUrl());
+
+        List<MediaAsset> assets = mediaAssetService.createAssets(story);
+        story.setMedia(new ArrayList<>(assets));
+        story.setMediaStatus(MediaStatus.PENDING);
+        Transactions.afterCommit(() -> submit(new Job(OwnerType.STORY, story.getId())));
+    }
+
+    /**
+     * Queue posts and stories whose media has been pending for a while
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void resubmitStale() {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(STALE_AFTER_SECONDS);
+        int submitted = 0;
+        for (OwnerType type : OwnerType.values()) {
+            for (Long ownerId : mediaAssetService.findStalePending(type, before, SWEEP_BATCH_SIZE)) {
+                if (submit(new Job(type, ownerId))) {
+                    submitted++;
+                }
+            }
+        }
+        if (submitted > 0) {
+            log.info("Resubmitted {} posts and stories with stale pending media", submitted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void validate(String url) {
+        mediaProbe.checkSyntax(url).ifPresent(error -> {
+            throw AppException.badRequest(error);
+        });
+    }
+
+    private boolean submit(Job job) {
+        if (!inFlight.add(job)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(job);
+                } finally {
+                    inFlight.remove(job);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(job);
+            log.warn("Media ingestion queue is full, {} {} stays pending until the next sweep", job.type(), job.ownerId());
+            return false;
+        }
+    }
+
+    private void process(Job job) {
+        try {
+            List<PendingMediaAsset> assets = mediaAssetService.getPendingAssets(job.type(), job.ownerId());
+            if (assets.isEmpty()) {
+                return;
+            }
+
+            Map<Long, MediaProbe.Result> results = new HashMap<>();
+            for (PendingMediaAsset asset : assets) {
+                results.put(asset.id(), probe(asset));
+            }
+
+            MediaStatus status = mediaAssetService.recordResults(job.type(), job.ownerId(), results);
+            log.debug("Processed {} media assets of {} {}: {}", assets.size(), job.type(), job.ownerId(), status);
+        } catch (RuntimeException e) {
+            // Left pending, so the sweep retries it
+            log.error("Failed to process media of {} {}", job.type(), job.ownerId(), e);
+        }
+    }
+
+    private MediaProbe.Result probe(PendingMediaAsset asset) {
+        try {
+            return mediaProbe.probe(asset.sourceUrl(), allowedKinds(asset), "thumbnails/" + asset.id());
+        } catch (RuntimeException e) {
+            log.warn("Media probe of asset {} failed", asset.id(), e);
+            return new MediaProbe.Result(false, null, null, null, null, null, null, "Could not process media");
+        }
+    }
+
+    private static Set<MediaKind> allowedKinds(PendingMediaAsset asset) {
+        return switch (asset.role()) {
+            case VIDEO -> EnumSet.of(MediaKind.VIDEO);
+            case PHOTO -> EnumSet.of(MediaKind.IMAGE);
+            case STORY -> switch (asset.storyType()) {
+                case IMAGE -> EnumSet.of(MediaKind.IMAGE);
+                case VIDEO -> EnumSet.of(MediaKind.VIDEO);
+                default -> EnumSet.allOf(MediaKind.class);
+            };
+        };
+    }
+
+    private record Job(OwnerType type, Long ownerId) {
+    }
+}
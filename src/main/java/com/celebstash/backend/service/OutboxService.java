@@ -0,0 +1,142 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.event.DomainEvent;
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.model.OutboxEvent;
+import com.celebstash.backend.model.enums.OutboxEventType;
+import com.celebstash.backend.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class OutboxService {
+
+    // How long a relay may take to deliver a claimed batch before another relay may claim it again
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${app.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Record an event in the outbox as part of the caller's transaction
+     * The event is only delivered if that transaction commits
+     * @param type the event type
+     * @param aggregateId the ID of the wallet or product the event is about
+     * @param payload the event data
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType type, Long aggregateId, Map<String, Object> payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .type(type)
+                    .aggregateId(aggregateId)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw AppException.internalError("Failed to record " + type + " event");
+        }
+    }
+
+    /**
+     * Claim the next batch of events due for delivery
+     * The events are leased to the caller, so other relays skip them while they are being delivered
+     * outside this transaction; events not marked published or failed by then become due again.
+     * @param batchSize the maximum number of events
+     * @return the events in outbox order
+     */
+    @Transactional
+    public List<OutboxEvent> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+        if (!events.isEmpty()) {
+            outboxEventRepository.lease(events.stream().map(OutboxEvent::getId).toList(), now.plus(LEASE));
+        }
+        return events;
+    }
+
+    /**
+     * Mark events as delivered
+     * @param eventIds the IDs of the delivered events
+     */
+    @Transactional
+    public void markPublished(List<Long> eventIds) {
+        if (!eventIds.isEmpty()) {
+            outboxEventRepository.markPublished(eventIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Record a failed delivery of an event
+     * The event is retried with exponential backoff, and parked once it has failed app.outbox.max-attempts times.
+     * @param eventId the event ID
+     * @param error what went wrong
+     */
+    @Transactional
+    public void recordFailure(Long eventId, String error) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            LocalDateTime now = LocalDateTime.now();
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+            if (attempts >= maxAttempts) {
+                event.setParkedAt(now);
+                log.error("Parked outbox event {} ({}) after {} failed attempts: {}",
+                        eventId, event.getType(), attempts, error);
+            } else {
+                Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 20));
+                event.setNextAttemptAt(now.plus(delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY));
+                log.warn("Delivery of outbox event {} ({}) failed, attempt {} of {}: {}",
+                        eventId, event.getType(), attempts, maxAttempts, error);
+            }
+        });
+    }
+
+    /**
+     * Delete events delivered before the given time
+     * @param before the cut-off time
+     * @return the number of deleted events
+     */
+    @Transactional
+    public int purgePublishedBefore(LocalDateTime before) {
+        return outboxEventRepository.deletePublishedBefore(before);
+    }
+
+    /**
+     * Convert a stored event to the form delivered to sinks
+     * @param event the stored event
+     * @return the domain event
+     * @throws AppException if the payload cannot be read
+     */
+    public DomainEvent toDomainEvent(OutboxEvent event) {
+        try {
+            return new DomainEvent(event.getId(), event.getType(), event.getAggregateId(),
+                    objectMapper.readTree(event.getPayload()), event.getCreatedAt());
+        } catch (JsonProcessingException e) {
+            throw AppException.internalError("Failed to read outbox event " + event.getId());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.repository.PostCounterRepository;
+import com.celebstash.backend.repository.PostRepository;
+import com.celebstash.backend.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains the denormalized like, comment and share counts of posts.
+ * Like count changes are coalesced in memory: every committed like or unlike adds to a striped per-post
+ * counter, so thousands of concurrent likes of one post never contend on its row, and the accumulated
+ * deltas are written in batches by {@link com.celebstash.backend.scheduler.PostLikeFlushScheduler}.
+ * Readers add the pending delta to the stored count, so a post never looks stale to this instance.
+ * Comment and share counts are low-volume and are changed atomically in the transaction that adds or
+ * removes the comment or share.
+ * All counts are recounted nightly from the underlying rows to repair drift. Deltas buffered when the
+ * instance crashes are lost, so until that recount, up to 24 hours later, the affected counts are off by
+ * at most one flush interval's worth of likes.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostCounterService {
+
+    private final PostRepository postRepository;
+    private final PostCounterRepository postCounterRepository;
+
+    // Like count changes not yet written to the database, by post ID
+    private final ConcurrentHashMap<Long, LongAdder> pendingLikes = new ConcurrentHashMap<>();
+
+    /**
+     * Record a change in the like count of a post once the surrounding transaction commits
+     * @param postId the post ID
+     * @param delta the change, +1 for a like and -1 for an unlike
+     */
+    public void recordLike(Long postId, long delta) {
+        Transactions.afterCommit(() -> addPendingLikes(postId, delta));
+    }
+
+    /**
+     * Change the comment count of a post, in the transaction that adds or removes the comments
+     * @param postId the post ID
+     * @param delta the number of comments added, negative for removed ones
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordComments(Long postId, int delta) {
+        postRepository.adjustCounters(postId, 0, delta, 0);
+    }
+
+    /**
+     * Change the share count of a post, in the transaction that adds or removes the shares
+     * @param postId the post ID
+     * @param delta the number of shares added, negative for removed ones
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordShares(Long postId, int delta) {
+        postRepository.adjustCounters(postId, 0, 0, delta);
+    }
+
+    /**
+     * Get the like count change of a post that has not been written yet
+     * @param postId the post ID
+     * @return the pending change
+     */
+    public long getPendingLikes(Long postId) {
+        LongAdder adder = pendingLikes.get(postId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Take the pending like count changes of up to a number of posts
+     * Posts without changes since the last drain are dropped from the buffer
+     * @param limit the maximum number of posts
+     * @return non-zero changes by post ID
+     */
+    public Map<Long, Long> drainPendingLikes(int limit) {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingLikes.entrySet()) {
+            if (drained.size() == limit) {
+                break;
+            }
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0 && pendingLikes.remove(entry.getKey(), adder)) {
+                // A writer may have added to the adder after the reset; anything it added is moved on
+                delta = adder.sumThenReset();
+            }
+            if (delta != 0) {
+                drained.merge(entry.getKey(), delta, Long::sum);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Put drained like count changes back, e.g. after a failed flush
+     * @param deltas changes by post ID
+     */
+    public void restorePendingLikes(Map<Long, Long> deltas) {
+        deltas.forEach(this::addPendingLikes);
+    }
+
+    /**
+     * Write drained like count changes in one transaction, as a single JDBC batch
+     * @param deltas changes by post ID
+     * @return number of posts updated
+     */
+    @Transactional
+    public int applyLikes(Map<Long, Long> deltas) {
+        return postCounterRepository.addLikes(deltas);
+    }
+
+    /**
+     * Get the next batch of post IDs to reconcile
+     * @param afterPostId the last post ID of the previous batch, 0 to start
+     * @param limit maximum batch size
+     * @return post IDs in ascending order
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findPostIdsAfter(Long afterPostId, int limit) {
+        return postRepository.findIdsAfter(afterPostId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Recount the counters of a batch of posts
+     * @param postIds the post IDs
+     * @return number of posts whose counters had drifted
+     */
+    @Transactional
+    public int reconcile(List<Long> postIds) {
+        return postRepository.reconcileCounters(postIds);
+    }
+
+    /**
+     * Recount only the comment and share counters of a batch of posts
+     * @param postIds the post IDs
+     * @return number of posts whose counters had drifted
+     */
+    @Transactional
+    public int reconcileCommentsAndShares(List<Long> postIds) {
+        return postRepository.reconcileCommentAndShareCounters(postIds);
+    }
+
+    private void addPendingLikes(Long postId, long delta) {
+        while (true) {
+            LongAdder adder = pendingLikes.computeIfAbsent(postId, id -> new LongAdder());
+            adder.add(delta);
+            if (pendingLikes.get(postId) == adder) {
+                return;
+            }
+            // The adder was dropped by a concurrent drain; take back whatever it still holds and retry
+            delta = adder.sumThenReset();
+            if (delta == 0) {
+                return;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.celebstash.backend.service;
 
+import com.celebstash.backend.dto.media.MediaAssetResponse;
+import com.celebstash.backend.dto.post.PostPhotoUrl;
 import com.celebstash.backend.dto.post.PostRequest;
 import com.celebstash.backend.dto.post.PostResponse;
 import com.celebstash.backend.exception.AppException;
@@ -7,20 +9,22 @@ import com.celebstash.backend.model.Post;
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.User;
 import com.celebstash.backend.model.enums.LikeableType;
-import com.celebstash.backend.repository.LikeRepository;
 import com.celebstash.backend.repository.PostRepository;
-import com.celebstash.backend.repository.ProductRepository;
 import com.celebstash.backend.repository.ShareRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,10 +33,13 @@ import java.util.stream.Collectors;
 public class PostService {
 
     private final PostRepository postRepository;
-    private final ProductRepository productRepository;
-    private final LikeRepository likeRepository;
     private final ShareRepository shareRepository;
     private final UserService userService;
+    private final EntityCacheService entityCacheService;
+    private final MediaIngestionService mediaIngestionService;
+    private final PostCounterService postCounterService;
+    private final LikeService likeService;
+    private final MediaAssetService mediaAssetService;
 
     /**
      * Create a new post
@@ -49,7 +56,7 @@ public class PostService {
         }
         
         // Get the product
-        Product product = productRepository.findById(request.getProductId())
+        Product product = entityCacheService.findProduct(request.getProductId())
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
         
         // Only the product owner can create a post for it
@@ -68,8 +75,11 @@ public class PostService {
                 .build();
         
         Post savedPost = postRepository.save(post);
+
+        // Media is fetched and inspected in the background once the post is committed
+        mediaIngestionService.register(savedPost);
         
-        return mapToPostResponse(savedPost, currentUser);
+        return mapToPostResponse(savedPost, false);
     }
 
     /**
@@ -82,7 +92,7 @@ public class PostService {
         User currentUser = userService.getCurrentUser();
         Page<Post> posts = postRepository.findAll(pageable);
         
-        return posts.map(post -> mapToPostResponse(post, currentUser));
+        return mapToPostResponses(posts, currentUser);
     }
 
     /**
@@ -109,7 +119,7 @@ public class PostService {
         User currentUser = userService.getCurrentUser();
         Page<Post> posts = postRepository.findByUser(currentUser, pageable);
         
-        return posts.map(post -> mapToPostResponse(post, currentUser));
+        return mapToPostResponses(posts, currentUser);
     }
 
     /**
@@ -162,11 +172,13 @@ public class PostService {
             throw new AppException("You can only delete your own posts", HttpStatus.FORBIDDEN);
         }
         
+        likeService.removeAllOfPost(postId);
         postRepository.delete(post);
     }
 
     /**
      * Like a post
+     * Liking a post twice has no further effect
      * @param postId the post ID
      * @return the updated post response
      */
@@ -177,20 +189,19 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new AppException("Post not found", HttpStatus.NOT_FOUND));
         
-        // Check if the user has already liked the post
-        if (post.isLikedBy(currentUser)) {
-            throw new AppException("You have already liked this post", HttpStatus.BAD_REQUEST);
+        // Only a new like changes the count; the count itself is written in batches, never locking the post
+        PostResponse response = mapToPostResponse(post, true);
+        if (likeService.like(currentUser.getId(), LikeableType.POST, postId)) {
+            postCounterService.recordLike(postId, 1);
+            response.setLikesCount(response.getLikesCount() + 1);
         }
         
-        // Add the like
-        post.addLike(currentUser);
-        Post updatedPost = postRepository.save(post);
-        
-        return mapToPostResponse(updatedPost, currentUser);
+        return response;
     }
 
     /**
      * Unlike a post
+     * Unliking a post that is not liked has no effect
      * @param postId the post ID
      * @return the updated post response
      */
@@ -201,16 +212,13 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new AppException("Post not found", HttpStatus.NOT_FOUND));
         
-        // Check if the user has liked the post
-        if (!post.isLikedBy(currentUser)) {
-            throw new AppException("You have not liked this post", HttpStatus.BAD_REQUEST);
+        PostResponse response = mapToPostResponse(post, false);
+        if (likeService.unlike(currentUser.getId(), LikeableType.POST, postId)) {
+            postCounterService.recordLike(postId, -1);
+            response.setLikesCount(response.getLikesCount() - 1);
         }
         
-        // Remove the like
-        post.removeLike(currentUser);
-        Post updatedPost = postRepository.save(post);
-        
-        return mapToPostResponse(updatedPost, currentUser);
+        return response;
     }
 
     /**
@@ -220,6 +228,70 @@ public class PostService {
      * @return the post response DTO
      */
     private PostResponse mapToPostResponse(Post post, User currentUser) {
+        return mapToPostResponses(List.of(post), currentUser).get(0);
+    }
+
+    /**
+     * Map a page of Post entities to PostResponse DTOs
+     * @param posts the page of post entities
+     * @param currentUser the current user
+     * @return the page of post response DTOs
+     */
+    private Page<PostResponse> mapToPostResponses(Page<Post> posts, User currentUser) {
+        return new PageImpl<>(mapToPostResponses(posts.getContent(), currentUser), posts.getPageable(),
+                posts.getTotalElements());
+    }
+
+    /**
+     * Map Post entities to PostResponse DTOs
+     * Photos, media and whether the current user likes each post are looked up for all posts at once,
+     * so a page costs the same number of queries whatever its size
+     * @param posts the post entities
+     * @param currentUser the current user
+     * @return the post response DTOs, in the same order
+     */
+    private List<PostResponse> mapToPostResponses(List<Post> posts, User currentUser) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+        List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        Set<Long> likedPostIds = likeService.findLikedIds(currentUser.getId(), LikeableType.POST, postIds);
+        Map<Long, List<MediaAssetResponse>> media = mediaAssetService.getPostMedia(postIds);
+        Map<Long, List<String>> photoUrls = postRepository.findPhotoUrls(postIds).stream()
+                .collect(Collectors.groupingBy(PostPhotoUrl::postId,
+                        Collectors.mapping(PostPhotoUrl::photoUrl, Collectors.toList())));
+
+        return posts.stream()
+                .map(post -> mapToPostResponse(post, likedPostIds.contains(post.getId()),
+                        photoUrls.getOrDefault(post.getId(), List.of()),
+                        media.getOrDefault(post.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Map a Post entity to a PostResponse DTO from its loaded state
+     * @param post the post entity
+     * @param isLiked whether the current user has liked the post
+     * @return the post response DTO
+     */
+    private PostResponse mapToPostResponse(Post post, boolean isLiked) {
+        List<MediaAssetResponse> media = post.getMedia().stream()
+                .map(MediaAssetService::toResponse)
+                .collect(Collectors.toList());
+        return mapToPostResponse(post, isLiked, new ArrayList<>(post.getPhotoUrls()), media);
+    }
+
+    /**
+     * Map a Post entity to a PostResponse DTO
+     * Only reads the denormalized counters, never the like, comment or share collections
+     * @param post the post entity
+     * @param isLiked whether the current user has liked the post
+     * @param photoUrls the photo URLs of the post
+     * @param media the media of the post
+     * @return the post response DTO
+     */
+    private PostResponse mapToPostResponse(Post post, boolean isLiked, List<String> photoUrls,
+                                           List<MediaAssetResponse> media) {
         return PostResponse.builder()
                 .id(post.getId())
                 .userId(post.getUser().getId())
@@ -227,14 +299,16 @@ public class PostService {
                 .userImageUrl(null) // TODO: Add user image URL when available
                 .product(null) // TODO: Add product response when available
                 .videoUrl(post.getVideoUrl())
-                .photoUrls(post.getPhotoUrls())
+                .photoUrls(photoUrls)
                 .description(post.getDescription())
+                .mediaStatus(post.getMediaStatus())
+                .media(media)
                 .createdAt(post.getCreatedAt())
                 .updatedAt(post.getUpdatedAt())
-                .likesCount(post.getLikesCount())
+                .likesCount(Math.toIntExact(post.getLikesCount() + postCounterService.getPendingLikes(post.getId())))
                 .commentsCount(post.getCommentsCount())
                 .sharesCount(post.getSharesCount())
-                .isLiked(post.isLikedBy(currentUser))
+                .isLiked(isLiked)
                 .isShared(false) // TODO: Implement check if user has shared the post
                 .comments(null) // Comments are loaded separately
                 .build();
@@ -0,0 +1,126 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.product.ProductStatusChangeResult;
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.enums.OutboxEventType;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies product status changes made by moderators.
+ * The products of a batch are locked in ID order and those whose status differs are changed with one
+ * set-based update, so of two moderators changing the same product only the first sees it change, and every
+ * product whose status changed gets exactly one {@link OutboxEventType#PRODUCT_STATUS_CHANGED} event in the
+ * same transaction. The search index, auction snapshot and entity cache are patched once the transaction
+ * commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductModerationService {
+
+    private final ProductRepository productRepository;
+    private final OutboxService outboxService;
+    private final ProductSearchService productSearchService;
+    private final AuctionSnapshotService auctionSnapshotService;
+    private final EntityCacheService entityCacheService;
+    private final EntityManager entityManager;
+
+    /**
+     * Set the status of a batch of products
+     * Products that already have the status are left untouched
+     * @param productIds the distinct product IDs
+     * @param status the new status, APPROVED or REJECTED
+     * @param rejectionReason why the products were rejected, may be null
+     * @return one result per product ID, in the given order
+     * @throws AppException if the status is PENDING, which products only have until they are moderated
+     */
+    @Transactional
+    public List<ProductStatusChangeResult> changeStatus(List<Long> productIds, ProductStatus status, String rejectionReason) {
+        if (status == ProductStatus.PENDING) {
+            throw AppException.badRequest("Products can only be approved or rejected");
+        }
+
+        // Lock first, so the statuses compared below are the latest committed ones and stay so until commit
+        productRepository.findAllByIdInForUpdate(productIds);
+        Map<Long, Product> products = productRepository.findAllWithUsersByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ProductStatusChangeResult> results = new ArrayList<>(productIds.size());
+        Map<Long, ProductStatus> changed = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null) {
+                results.add(result(productId, ProductStatusChangeResult.Outcome.NOT_FOUND, null));
+            } else if (product.getStatus() == status) {
+                results.add(result(productId, ProductStatusChangeResult.Outcome.UNCHANGED, status));
+            } else {
+                changed.put(productId, product.getStatus());
+                results.add(result(productId, ProductStatusChangeResult.Outcome.UPDATED, product.getStatus()));
+            }
+        }
+        if (changed.isEmpty()) {
+            return results;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime approvedAt = status == ProductStatus.APPROVED ? now : null;
+        productRepository.updateStatus(changed.keySet(), status, approvedAt, now);
+
+        Session session = entityManager.unwrap(Session.class);
+        changed.forEach((productId, previousStatus) -> {
+            Product product = products.get(productId);
+            // Mirror the update on the attached product without it being written again: a read-only entity
+            // has no snapshot, and making it modifiable takes its current state as the new one
+            session.setReadOnly(product, true);
+            product.setStatus(status);
+            if (approvedAt != null) {
+                product.setApprovedAt(approvedAt);
+            }
+            product.setUpdatedAt(now);
+            session.setReadOnly(product, false);
+
+            recordStatusChanged(product, previousStatus, rejectionReason);
+            productSearchService.refresh(product);
+            auctionSnapshotService.refresh(product);
+            entityCacheService.evictProductAfterCommit(productId);
+        });
+        return results;
+    }
+
+    private void recordStatusChanged(Product product, ProductStatus previousStatus, String rejectionReason) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("productId", product.getId());
+        payload.put("sellerId", product.getSeller().getId());
+        payload.put("status", product.getStatus());
+        payload.put("previousStatus", previousStatus);
+        if (rejectionReason != null && product.getStatus() == ProductStatus.REJECTED) {
+            payload.put("rejectionReason", rejectionReason);
+        }
+        outboxService.record(OutboxEventType.PRODUCT_STATUS_CHANGED, product.getId(), payload);
+    }
+
+    private static ProductStatusChangeResult result(Long productId,
+                                                    ProductStatusChangeResult.Outcome outcome,
+                                                    ProductStatus previousStatus) {
+        return ProductStatusChangeResult.builder()
+                .productId(productId)
+                .outcome(outcome)
+                .previousStatus(previousStatus)
+                .build();
+    }
+}
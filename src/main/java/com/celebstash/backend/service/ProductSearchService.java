@@ -0,0 +1,152 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.product.ProductSearchHit;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.search.ProductSearchIndex;
+import com.celebstash.backend.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Full-text search over approved products, served from an in-memory inverted index.
+ * The index is built from the database on startup and nightly, and patched after every
+ * committed product change, so searches never touch the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    public static final int MAX_RESULTS = 100;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+
+    // Guarded by this; changes committed while a rebuild runs, replayed onto the new index before it is published
+    private Map<Long, Optional<ProductSearchIndex.Document>> pendingChanges;
+
+    /**
+     * Rebuild the index from the database
+     * Runs on startup and nightly to bound drift from changes made outside this service
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 45 3 * * *")
+    public void rebuild() {
+        synchronized (this) {
+            pendingChanges = new HashMap<>();
+        }
+
+        ProductSearchIndex rebuilt = new ProductSearchIndex();
+        try {
+            // Keyset batches, each loaded in its own short read
+            Long afterId = 0L;
+            List<Product> batch;
+            do {
+                batch = productRepository.findBatchByStatusWithSeller(
+                        ProductStatus.APPROVED, afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Product product : batch) {
+                    rebuilt.put(toDocument(product));
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pendingChanges.forEach((productId, document) -> apply(rebuilt, productId, document));
+            pendingChanges = null;
+            index = rebuilt;
+        }
+
+        log.info("Rebuilt product search index with {} products", rebuilt.size());
+    }
+
+    /**
+     * Search approved products by name and description
+     * Matches whole words, word prefixes and words with a single typo
+     * @param query the free-text query
+     * @param limit maximum number of results
+     * @return matching products, most relevant first
+     */
+    public List<ProductSearchHit> search(String query, int limit) {
+        return index.search(query, Math.min(limit, MAX_RESULTS)).stream()
+                .map(ProductSearchService::toHit)
+                .toList();
+    }
+
+    /**
+     * Update a product in the index once the surrounding transaction commits
+     * Products that are not approved are removed from the index
+     * @param product the product that changed
+     */
+    public void refresh(Product product) {
+        Long productId = product.getId();
+        Optional<ProductSearchIndex.Document> document = product.getStatus() == ProductStatus.APPROVED
+                ? Optional.of(toDocument(product))
+                : Optional.empty();
+
+        Transactions.afterCommit(() -> {
+            synchronized (this) {
+                apply(index, productId, document);
+                if (pendingChanges != null) {
+                    pendingChanges.put(productId, document);
+                }
+            }
+        });
+    }
+
+    private static void apply(ProductSearchIndex target, Long productId, Optional<ProductSearchIndex.Document> document) {
+        if (document.isPresent()) {
+            target.put(document.get());
+        } else {
+            target.remove(productId);
+        }
+    }
+
+    private static ProductSearchIndex.Document toDocument(Product product) {
+        return new ProductSearchIndex.Document(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getImageUrl(),
+                product.getProductType(),
+                product.getSeller().getId(),
+                product.getSeller().getFullName());
+    }
+
+    private static ProductSearchHit toHit(ProductSearchIndex.Hit hit) {
+        ProductSearchIndex.Document document = hit.document();
+        return ProductSearchHit.builder()
+                .id(document.productId())
+                .name(document.name())
+                .description(document.description())
+                .price(document.price())
+                .imageUrl(document.imageUrl())
+                .productType(document.productType())
+                .sellerId(document.sellerId())
+                .sellerName(document.sellerName())
+                .score(hit.score())
+                .build();
+    }
+}
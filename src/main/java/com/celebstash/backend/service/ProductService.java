@@ -1,7 +1,14 @@
 package com.celebstash.backend.service;
 
+import com.celebstash.backend.dto.product.ProductBulkStatusUpdateRequest;
+import com.celebstash.backend.dto.product.ProductBulkStatusUpdateResponse;
+import com.celebstash.backend.dto.product.ProductCatalogFilter;
+import com.celebstash.backend.dto.product.ProductPageResponse;
+import com.celebstash.backend.dto.product.ProductPostId;
 import com.celebstash.backend.dto.product.ProductRequest;
 import com.celebstash.backend.dto.product.ProductResponse;
+import com.celebstash.backend.dto.product.ProductSearchHit;
+import com.celebstash.backend.dto.product.ProductStatusChangeResult;
 import com.celebstash.backend.dto.product.ProductStatusUpdateRequest;
 import com.celebstash.backend.exception.AppException;
 import com.celebstash.backend.model.Product;
@@ -11,15 +18,23 @@ import com.celebstash.backend.model.enums.ProductType;
 import com.celebstash.backend.model.enums.Role;
 import com.celebstash.backend.repository.PostRepository;
 import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.repository.ProductSpecifications;
 import com.celebstash.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +45,14 @@ public class ProductService {
     private final UserRepository userRepository;
     private final UserService userService;
     private final PostRepository postRepository;
+    private final AuctionSnapshotService auctionSnapshotService;
+    private final ProductSearchService productSearchService;
+    private final InventoryService inventoryService;
+    private final EntityCacheService entityCacheService;
+    private final ProductModerationService productModerationService;
+
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+    private static final int STATUS_UPDATE_CHUNK_SIZE = 500;
 
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
@@ -56,6 +79,7 @@ public class ProductService {
 
         Product product = productBuilder.build();
         Product savedProduct = productRepository.save(product);
+        productSearchService.refresh(savedProduct);
         return mapToProductResponse(savedProduct);
     }
 
@@ -68,17 +92,81 @@ public class ProductService {
             throw new AppException("Only admins can approve or reject products", HttpStatus.FORBIDDEN);
         }
 
-        Product product = productRepository.findById(productId)
+        ProductStatusChangeResult result = productModerationService.changeStatus(
+                List.of(productId), request.getStatus(), request.getRejectionReason()).get(0);
+        if (result.getOutcome() == ProductStatusChangeResult.Outcome.NOT_FOUND) {
+            throw new AppException("Product not found", HttpStatus.NOT_FOUND);
+        }
+
+        Product updatedProduct = productRepository.findWithUsersById(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
+        return mapToProductResponse(updatedProduct);
+    }
+
+    /**
+     * Set the status of many products at once
+     * Products are updated in chunks, each locked and changed in its own transaction,
+     * so a large backlog neither holds locks for long nor fails as a whole.
+     * @param request the product IDs and the new status
+     * @return the outcome for every distinct product ID
+     */
+    public ProductBulkStatusUpdateResponse bulkUpdateProductStatus(ProductBulkStatusUpdateRequest request) {
+        User currentUser = userService.getCurrentUser();
 
-        product.setStatus(request.getStatus());
+        // Only admins can update product status
+        if (currentUser.getRole() != Role.ADMIN) {
+            throw new AppException("Only admins can approve or reject products", HttpStatus.FORBIDDEN);
+        }
 
-        if (request.getStatus() == ProductStatus.APPROVED) {
-            product.setApprovedAt(LocalDateTime.now());
+        List<Long> productIds = List.copyOf(new LinkedHashSet<>(request.getProductIds()));
+        List<ProductStatusChangeResult> results = new ArrayList<>(productIds.size());
+        for (int from = 0; from < productIds.size(); from += STATUS_UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + STATUS_UPDATE_CHUNK_SIZE, productIds.size()));
+            results.addAll(productModerationService.changeStatus(chunk, request.getStatus(), request.getRejectionReason()));
         }
 
-        Product updatedProduct = productRepository.save(product);
-        return mapToProductResponse(updatedProduct);
+        int updated = (int) results.stream()
+                .filter(result -> result.getOutcome() == ProductStatusChangeResult.Outcome.UPDATED)
+                .count();
+        return ProductBulkStatusUpdateResponse.builder()
+                .status(request.getStatus())
+                .requested(productIds.size())
+                .updated(updated)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Get a page of the products waiting for moderation, oldest first
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the page size
+     * @return page of pending products with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse getModerationQueue(String cursor, int size) {
+        User currentUser = userService.getCurrentUser();
+
+        // Only admins can moderate products
+        if (currentUser.getRole() != Role.ADMIN) {
+            throw new AppException("Only admins can moderate products", HttpStatus.FORBIDDEN);
+        }
+
+        ProductCatalogFilter filter = new ProductCatalogFilter(
+                null, null, null, null, ProductStatus.PENDING, ProductCatalogFilter.Sort.OLDEST);
+        return getCatalogPage(filter, cursor, size);
+    }
+
+    /**
+     * Search approved products by name and description
+     * @param query the free-text query
+     * @param limit maximum number of results
+     * @return matching products, most relevant first
+     */
+    public List<ProductSearchHit> searchProducts(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new AppException("Search query is required", HttpStatus.BAD_REQUEST);
+        }
+        return productSearchService.search(query, limit);
     }
 
     @Transactional(readOnly = true)
@@ -88,14 +176,12 @@ public class ProductService {
 
         // Admins can see all products, regular users can only see approved products
         if (currentUser.getRole() == Role.ADMIN) {
-            products = productRepository.findAll();
+            products = productRepository.findAllWithUsers();
         } else {
             products = productRepository.findByStatus(ProductStatus.APPROVED);
         }
 
-        return products.stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+        return mapToProductResponses(products);
     }
 
     @Transactional(readOnly = true)
@@ -103,15 +189,66 @@ public class ProductService {
         User currentUser = userService.getCurrentUser();
         List<Product> products = productRepository.findBySeller(currentUser);
 
-        return products.stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+        return mapToProductResponses(products);
+    }
+
+    /**
+     * Get a page of the product catalog, using keyset pagination
+     * Regular users only see approved products, except their own; admins see every product.
+     * @param filter the filters and sort order
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the page size, capped at {@link #MAX_CATALOG_PAGE_SIZE}
+     * @return page of products with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse getCatalogPage(ProductCatalogFilter filter, String cursor, int size) {
+        User currentUser = userService.getCurrentUser();
+        ProductCatalogFilter.Sort sort = filter.sort() != null ? filter.sort() : ProductCatalogFilter.Sort.NEWEST;
+        int pageSize = Math.min(Math.max(size, 1), MAX_CATALOG_PAGE_SIZE);
+
+        boolean seesAllStatuses = currentUser.getRole() == Role.ADMIN || currentUser.getId().equals(filter.sellerId());
+        ProductStatus status = seesAllStatuses ? filter.status() : ProductStatus.APPROVED;
+
+        Specification<Product> spec = ProductSpecifications.fetchUsers();
+        if (status != null) {
+            spec = spec.and(ProductSpecifications.hasStatus(status));
+        }
+        if (filter.productType() != null) {
+            spec = spec.and(ProductSpecifications.hasType(filter.productType()));
+        }
+        if (filter.sellerId() != null) {
+            spec = spec.and(ProductSpecifications.hasSeller(filter.sellerId()));
+        }
+        if (filter.minPrice() != null) {
+            spec = spec.and(ProductSpecifications.priceAtLeast(filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            spec = spec.and(ProductSpecifications.priceAtMost(filter.maxPrice()));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(CatalogCursor.decode(cursor, sort).toSpecification());
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        List<Product> products = productRepository.findBy(spec, query -> query
+                .sortBy(sortOf(sort))
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = products.size() > pageSize;
+        List<Product> page = hasMore ? products.subList(0, pageSize) : products;
+        Product last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return ProductPageResponse.builder()
+                .items(mapToProductResponses(page))
+                .nextCursor(hasMore ? CatalogCursor.after(last, sort).encode() : null)
+                .build();
     }
 
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long productId) {
         User currentUser = userService.getCurrentUser();
-        Product product = productRepository.findById(productId)
+        Product product = entityCacheService.findProduct(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
 
         // Regular users can only see approved products unless they are the seller
@@ -161,10 +298,64 @@ public class ProductService {
         product.setInitialBidPrice(initialBidPrice);
 
         Product updatedProduct = productRepository.save(product);
+        auctionSnapshotService.refresh(updatedProduct);
+        productSearchService.refresh(updatedProduct);
+        entityCacheService.evictProductAfterCommit(updatedProduct.getId());
         return mapToProductResponse(updatedProduct);
     }
 
+    /**
+     * Split the stock of a product across inventory shards for high-traffic drops
+     * @param productId the ID of the product
+     * @param shards the number of shards, 0 or 1 to hold the stock in the product row again
+     * @return the updated product
+     */
+    @Transactional
+    public ProductResponse updateInventoryShards(Long productId, int shards) {
+        User currentUser = userService.getCurrentUser();
+
+        // Only admins can shard product inventory
+        if (currentUser.getRole() != Role.ADMIN) {
+            throw new AppException("Only admins can shard product inventory", HttpStatus.FORBIDDEN);
+        }
+
+        Product product = inventoryService.reshard(productId, shards);
+        entityCacheService.evictProductAfterCommit(productId);
+        return mapToProductResponse(product);
+    }
+
+    private static Sort sortOf(ProductCatalogFilter.Sort sort) {
+        return switch (sort) {
+            case NEWEST -> Sort.by(Sort.Direction.DESC, "createdAt", "id");
+            case OLDEST -> Sort.by(Sort.Direction.ASC, "createdAt", "id");
+            case PRICE_ASC -> Sort.by(Sort.Direction.ASC, "price", "id");
+            case PRICE_DESC -> Sort.by(Sort.Direction.DESC, "price", "id");
+        };
+    }
+
     private ProductResponse mapToProductResponse(Product product) {
+        return mapToProductResponses(List.of(product)).get(0);
+    }
+
+    /**
+     * Map a batch of products, resolving their post IDs in a single query
+     * Sellers and current bidders are expected to be fetched with the products
+     */
+    private List<ProductResponse> mapToProductResponses(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        Map<Long, Long> postIds = postRepository.findPostIdsByProductIds(productIds).stream()
+                .collect(Collectors.toMap(ProductPostId::productId, ProductPostId::postId));
+
+        return products.stream()
+                .map(product -> mapToProductResponse(product, postIds.get(product.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private ProductResponse mapToProductResponse(Product product, Long postId) {
         ProductResponse.ProductResponseBuilder builder = ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -172,6 +363,7 @@ public class ProductService {
                 .price(product.getPrice())
                 .imageUrl(product.getImageUrl())
                 .stockQuantity(product.getStockQuantity())
+                .inventoryShards(product.getInventoryShards())
                 .status(product.getStatus())
                 .productType(product.getProductType())
                 .sellerId(product.getSeller().getId())
@@ -179,13 +371,8 @@ public class ProductService {
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .approvedAt(product.getApprovedAt())
-                .hasPost(false);
-
-        // Check if a post exists for this product
-        postRepository.findByProduct(product).ifPresent(post -> {
-            builder.hasPost(true);
-            builder.postId(post.getId());
-        });
+                .hasPost(postId != null)
+                .postId(postId);
 
         // Add bidding-related fields if it's a bidding product
         if (product.getProductType() == ProductType.BIDDING) {
@@ -210,4 +397,47 @@ public class ProductService {
 
         return builder.build();
     }
+
+    /**
+     * Position in the catalog after which the next page starts, for a given sort order
+     */
+    private record CatalogCursor(ProductCatalogFilter.Sort sort, String value, Long id) {
+
+        static CatalogCursor after(Product product, ProductCatalogFilter.Sort sort) {
+            String value = sort == ProductCatalogFilter.Sort.NEWEST || sort == ProductCatalogFilter.Sort.OLDEST
+                    ? product.getCreatedAt().toString()
+                    : product.getPrice().toPlainString();
+            return new CatalogCursor(sort, value, product.getId());
+        }
+
+        Specification<Product> toSpecification() {
+            return switch (sort) {
+                case NEWEST -> ProductSpecifications.createdBefore(LocalDateTime.parse(value), id);
+                case OLDEST -> ProductSpecifications.createdAfter(LocalDateTime.parse(value), id);
+                case PRICE_ASC -> ProductSpecifications.pricedAbove(new BigDecimal(value), id);
+                case PRICE_DESC -> ProductSpecifications.pricedBelow(new BigDecimal(value), id);
+            };
+        }
+
+        String encode() {
+            String raw = sort + "|" + value + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CatalogCursor decode(String cursor, ProductCatalogFilter.Sort expectedSort) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                CatalogCursor position = new CatalogCursor(
+                        ProductCatalogFilter.Sort.valueOf(parts[0]), parts[1], Long.parseLong(parts[2]));
+                if (position.sort() != expectedSort) {
+                    throw new IllegalArgumentException("Cursor belongs to a different sort order");
+                }
+                // Fail on a malformed value now rather than in the query
+                position.toSpecification();
+                return position;
+            } catch (RuntimeException e) {
+                throw new AppException("Invalid cursor", HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
 }
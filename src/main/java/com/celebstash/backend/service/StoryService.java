@@ -7,9 +7,7 @@ import com.celebstash.backend.exception.AppException;
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.Story;
 import com.celebstash.backend.model.User;
-import com.celebstash.backend.repository.ProductRepository;
 import com.celebstash.backend.repository.StoryRepository;
-import com.celebstash.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -26,10 +24,10 @@ import java.util.stream.Collectors;
 public class StoryService {
 
     private final StoryRepository storyRepository;
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
     private final UserService userService;
     private final ProductService productService;
+    private final EntityCacheService entityCacheService;
+    private final MediaIngestionService mediaIngestionService;
 
     /**
      * Create a new story
@@ -56,7 +54,7 @@ public class StoryService {
 
         // Link to product if provided
         if (request.getProductId() != null) {
-            Product product = productRepository.findById(request.getProductId())
+            Product product = entityCacheService.findProduct(request.getProductId())
                     .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
             storyBuilder.product(product);
         }
@@ -64,6 +62,9 @@ public class StoryService {
         Story story = storyBuilder.build();
         Story savedStory = storyRepository.save(story);
 
+        // Media is fetched and inspected in the background once the story is committed
+        mediaIngestionService.register(savedStory);
+
         return mapToStoryResponse(savedStory, currentUser);
     }
 
@@ -91,7 +92,7 @@ public class StoryService {
     @Transactional(readOnly = true)
     public List<StoryResponse> getActiveStoriesByUser(Long userId) {
         User currentUser = userService.getCurrentUser();
-        User targetUser = userRepository.findById(userId)
+        User targetUser = entityCacheService.findUser(userId)
                 .orElseThrow(() -> new AppException("User not found", HttpStatus.NOT_FOUND));
 
         LocalDateTime now = LocalDateTime.now();
@@ -174,6 +175,8 @@ public class StoryService {
                 .type(story.getType())
                 .mediaUrl(story.getMediaUrl())
                 .caption(story.getCaption())
+                .mediaStatus(story.getMediaStatus())
+                .media(story.getMedia().stream().map(MediaAssetService::toResponse).collect(Collectors.toList()))
                 .viewsCount(story.getViewsCount())
                 .createdAt(story.getCreatedAt())
                 .expiresAt(story.getExpiresAt())
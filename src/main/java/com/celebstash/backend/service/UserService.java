@@ -27,10 +27,11 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EntityCacheService entityCacheService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmailOrPhoneNumber(username, username)
+        return entityCacheService.findUserByIdentifier(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email or phone: " + username));
     }
 
@@ -58,7 +59,9 @@ public class UserService implements UserDetailsService {
     @Transactional
     public User updateUserStatus(User user, AccountStatus status) {
         user.setStatus(status);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        entityCacheService.evictUserAfterCommit(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -69,7 +72,9 @@ public class UserService implements UserDetailsService {
             user.setPhoneVerified(true);
         }
         user.setStatus(AccountStatus.VERIFIED);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        entityCacheService.evictUserAfterCommit(saved.getId());
+        return saved;
     }
 
     public Optional<User> findByEmail(String email) {
@@ -95,11 +100,30 @@ public class UserService implements UserDetailsService {
     @Transactional
     public User updatePassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        entityCacheService.evictUserAfterCommit(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Get the ID of the currently authenticated user
+     * Read from the principal when it is a loaded user, so no query is needed on authenticated requests
+     * @return the current user ID
+     * @throws AppException if no user is authenticated
+     */
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user.getId();
+        }
+        return getCurrentUser().getId();
     }
 
     /**
      * Get the currently authenticated user
+     * Loaded in the caller's persistence context rather than from the user cache, since callers modify it
+     * and attach it to what they save
      * @return the current user
      * @throws AppException if no user is authenticated
      */
@@ -110,6 +134,11 @@ public class UserService implements UserDetailsService {
         }
 
         Object principal = authentication.getPrincipal();
+        if (principal instanceof User user && user.getId() != null) {
+            return userRepository.findById(user.getId())
+                    .orElseThrow(() -> new AppException("User not found", HttpStatus.NOT_FOUND));
+        }
+
         String username;
 
         if (principal instanceof UserDetails) {
@@ -0,0 +1,76 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.wallet.WalletView;
+import com.celebstash.backend.event.DomainEvent;
+import com.celebstash.backend.model.enums.TransactionStatus;
+import com.celebstash.backend.model.enums.TransactionType;
+import com.celebstash.backend.repository.WalletRepository;
+import com.celebstash.backend.util.Transactions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cached read model for wallet reads.
+ * A cached view is never older than {@link #MAX_STALENESS}. It is usually fresher, because local wallet
+ * writes evict it on commit and every wallet or auction event relayed from the outbox evicts it as well.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletReadModelService {
+
+    public static final Duration MAX_STALENESS = Duration.ofSeconds(5);
+    private static final long MAX_ENTRIES = 100_000;
+
+    private final WalletRepository walletRepository;
+
+    private final Cache<Long, WalletView> views = Caffeine.newBuilder()
+            .expireAfterWrite(MAX_STALENESS)
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    /**
+     * Get the wallet view of a user, loading it in one query on a cache miss
+     * @param userId the user ID
+     * @return the wallet view, or empty if the user has no wallet
+     */
+    public Optional<WalletView> find(Long userId) {
+        WalletView cached = views.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<WalletView> loaded = walletRepository.findViewByUserId(
+                userId, TransactionType.BID, TransactionStatus.PENDING);
+        loaded.ifPresent(view -> views.put(userId, view));
+        return loaded;
+    }
+
+    /**
+     * Evict the wallet view of a user once the surrounding transaction commits
+     * @param userId the user ID
+     */
+    public void evictAfterCommit(Long userId) {
+        Transactions.afterCommit(() -> views.invalidate(userId));
+    }
+
+    /**
+     * Evict the wallet view of the user a relayed wallet or auction event is about
+     * @param event the domain event
+     */
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        JsonNode userId = event.payload().get("userId");
+        if (userId != null && userId.canConvertToLong()) {
+            views.invalidate(userId.asLong());
+        }
+    }
+}
@@ -1,28 +1,45 @@
 package com.celebstash.backend.service;
 
 import com.celebstash.backend.dto.wallet.TopUpRequest;
+import com.celebstash.backend.dto.wallet.TransactionPageResponse;
 import com.celebstash.backend.dto.wallet.TransactionResponse;
 import com.celebstash.backend.dto.wallet.WalletResponse;
+import com.celebstash.backend.dto.wallet.WalletView;
 import com.celebstash.backend.exception.AppException;
 import com.celebstash.backend.model.Product;
 import com.celebstash.backend.model.Transaction;
-import com.celebstash.backend.model.User;
 import com.celebstash.backend.model.Wallet;
+import com.celebstash.backend.model.enums.OutboxEventType;
 import com.celebstash.backend.model.enums.TransactionStatus;
 import com.celebstash.backend.model.enums.TransactionType;
 import com.celebstash.backend.repository.ProductRepository;
 import com.celebstash.backend.repository.TransactionRepository;
 import com.celebstash.backend.repository.WalletRepository;
+import com.celebstash.backend.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -33,6 +50,15 @@ public class WalletService {
     private final TransactionRepository transactionRepository;
     private final ProductRepository productRepository;
     private final UserService userService;
+    private final AccountProvisioningService accountProvisioningService;
+    private final LedgerService ledgerService;
+    private final OutboxService outboxService;
+    private final WalletReadModelService walletReadModelService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
 
     /**
      * Get or create a wallet for the current user
@@ -40,26 +66,35 @@ public class WalletService {
      */
     @Transactional
     public Wallet getOrCreateWallet() {
-        User currentUser = userService.getCurrentUser();
-        return walletRepository.findByUser(currentUser)
+        Long userId = userService.getCurrentUserId();
+        return walletRepository.findByUserId(userId)
                 .orElseGet(() -> {
-                    Wallet newWallet = Wallet.builder()
-                            .user(currentUser)
-                            .balance(BigDecimal.ZERO)
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                    return walletRepository.save(newWallet);
+                    // Users created before wallets were provisioned at signup
+                    try {
+                        accountProvisioningService.provisionWallet(userId);
+                    } catch (DataIntegrityViolationException e) {
+                        // A concurrent request created it first
+                    }
+                    return walletRepository.findByUserId(userId)
+                            .orElseThrow(() -> new AppException("Wallet not found", HttpStatus.NOT_FOUND));
                 });
     }
 
     /**
      * Get the current user's wallet information
-     * @return wallet response with balance
+     * Served from the wallet read model, which is at most {@link WalletReadModelService#MAX_STALENESS} old
+     * @return wallet response with balance and held funds
      */
-    @Transactional(readOnly = true)
     public WalletResponse getWalletInfo() {
-        Wallet wallet = getOrCreateWallet();
-        return mapToWalletResponse(wallet);
+        Long userId = userService.getCurrentUserId();
+        WalletView view = walletReadModelService.find(userId)
+                .orElseGet(() -> {
+                    // First wallet access for this user
+                    getOrCreateWallet();
+                    return walletReadModelService.find(userId)
+                            .orElseThrow(() -> new AppException("Wallet not found", HttpStatus.NOT_FOUND));
+                });
+        return mapToWalletResponse(view);
     }
 
     /**
@@ -82,12 +117,11 @@ public class WalletService {
                 .completedAt(LocalDateTime.now())
                 .build();
         
-        // Update wallet balance
-        wallet.setBalance(wallet.getBalance().add(request.getAmount()));
-        
-        // Save transaction and wallet
+        // Save transaction, credit the wallet atomically and post it to the ledger
         transactionRepository.save(transaction);
-        walletRepository.save(wallet);
+        credit(wallet, request.getAmount());
+        ledgerService.recordDeposit(wallet.getId(), request.getAmount(), transaction.getId());
+        recordWalletEvent(OutboxEventType.WALLET_TOPPED_UP, wallet, transaction);
         
         return mapToWalletResponse(wallet);
     }
@@ -98,9 +132,9 @@ public class WalletService {
      * @return true if the user has sufficient balance
      */
     @Transactional(readOnly = true)
-    public boolean hasSufficientBalance(BigDecimal amount) {
+    public boolean hasSufficientBalance(Money amount) {
         Wallet wallet = getOrCreateWallet();
-        return wallet.getBalance().compareTo(amount) >= 0;
+        return !Money.of(wallet.getBalance()).isLessThan(amount);
     }
 
     /**
@@ -111,36 +145,60 @@ public class WalletService {
      */
     @Transactional
     public WalletResponse deductFunds(BigDecimal amount, Long productId) {
-        Wallet wallet = getOrCreateWallet();
-        
-        // Check if user has sufficient balance
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new AppException("Insufficient balance", HttpStatus.BAD_REQUEST);
-        }
-        
-        // Get the product
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
-        
-        // Create a purchase transaction
-        Transaction transaction = Transaction.builder()
-                .wallet(wallet)
-                .amount(amount)
-                .type(TransactionType.PURCHASE)
-                .status(TransactionStatus.COMPLETED)
-                .description("Purchase of " + product.getName())
-                .product(product)
-                .createdAt(LocalDateTime.now())
-                .completedAt(LocalDateTime.now())
-                .build();
-        
-        // Update wallet balance
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        
-        // Save transaction and wallet
-        transactionRepository.save(transaction);
-        walletRepository.save(wallet);
-        
+        return payForPurchases(List.of(new Purchase(product, amount)));
+    }
+
+    /**
+     * Pay for several purchases from the user's wallet at once
+     * The total is debited with one guarded update and posted as one ledger journal, and each purchase
+     * is recorded as its own transaction against that debit.
+     * @param purchases the purchased products and the amount paid for each
+     * @return the updated wallet response
+     * @throws AppException if the balance does not cover the total
+     */
+    @Transactional
+    public WalletResponse payForPurchases(List<Purchase> purchases) {
+        Wallet wallet = getOrCreateWallet();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Purchase purchase : purchases) {
+            total = total.add(purchase.amount());
+        }
+
+        // Debit the wallet, fails if the balance does not cover the total
+        debit(wallet, total);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>(purchases.size());
+        for (Purchase purchase : purchases) {
+            transactions.add(Transaction.builder()
+                    .wallet(wallet)
+                    .amount(purchase.amount())
+                    .type(TransactionType.PURCHASE)
+                    .status(TransactionStatus.COMPLETED)
+                    .description("Purchase of " + purchase.product().getName())
+                    .product(purchase.product())
+                    .createdAt(now)
+                    .completedAt(now)
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+
+        Map<Long, BigDecimal> amounts = new LinkedHashMap<>();
+        transactions.forEach(transaction -> amounts.put(transaction.getId(), transaction.getAmount()));
+        ledgerService.recordPurchases(wallet.getId(), amounts);
+
+        if (transactions.size() == 1) {
+            recordWalletEvent(OutboxEventType.WALLET_PURCHASE_PAID, wallet, transactions.get(0));
+        } else {
+            Map<String, Object> payload = walletEventPayload(wallet, total);
+            payload.put("transactionIds", transactions.stream().map(Transaction::getId).toList());
+            payload.put("productIds", purchases.stream().map(purchase -> purchase.product().getId()).toList());
+            recordWalletEvent(OutboxEventType.WALLET_PURCHASE_PAID, wallet, payload);
+        }
+
         return mapToWalletResponse(wallet);
     }
 
@@ -154,15 +212,13 @@ public class WalletService {
     public TransactionResponse reserveFundsForBid(BigDecimal amount, Long productId) {
         Wallet wallet = getOrCreateWallet();
         
-        // Check if user has sufficient balance
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new AppException("Insufficient balance", HttpStatus.BAD_REQUEST);
-        }
-        
         // Get the product
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new AppException("Product not found", HttpStatus.NOT_FOUND));
         
+        // Debit the wallet, fails if the balance does not cover the amount
+        debit(wallet, amount);
+        
         // Create a bid transaction
         Transaction transaction = Transaction.builder()
                 .wallet(wallet)
@@ -174,12 +230,9 @@ public class WalletService {
                 .createdAt(LocalDateTime.now())
                 .build();
         
-        // Update wallet balance
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        
-        // Save transaction and wallet
         Transaction savedTransaction = transactionRepository.save(transaction);
-        walletRepository.save(wallet);
+        ledgerService.recordBidReservation(wallet.getId(), amount, savedTransaction.getId());
+        recordWalletEvent(OutboxEventType.WALLET_BID_RESERVED, wallet, savedTransaction);
         
         return mapToTransactionResponse(savedTransaction);
     }
@@ -199,9 +252,13 @@ public class WalletService {
             throw new AppException("Not a bid transaction", HttpStatus.BAD_REQUEST);
         }
         
-        // Update transaction status
-        transaction.setStatus(TransactionStatus.REFUNDED);
-        transaction.setCompletedAt(LocalDateTime.now());
+        // Move the bid from PENDING to REFUNDED atomically so it can only be refunded once
+        int updated = transactionRepository.transitionStatus(
+                transactionId, TransactionStatus.PENDING, TransactionStatus.REFUNDED, LocalDateTime.now());
+        if (updated == 0) {
+            throw new AppException("Bid has already been settled", HttpStatus.CONFLICT);
+        }
+        entityManager.refresh(transaction);
         
         // Create a refund transaction
         Transaction refundTransaction = Transaction.builder()
@@ -216,14 +273,12 @@ public class WalletService {
                 .completedAt(LocalDateTime.now())
                 .build();
         
-        // Update wallet balance
+        // Save refund transaction, credit the wallet atomically and post it to the ledger
         Wallet wallet = transaction.getWallet();
-        wallet.setBalance(wallet.getBalance().add(transaction.getAmount()));
-        
-        // Save transactions and wallet
-        transactionRepository.save(transaction);
         transactionRepository.save(refundTransaction);
-        walletRepository.save(wallet);
+        credit(wallet, transaction.getAmount());
+        ledgerService.recordBidRefund(wallet.getId(), transaction.getAmount(), refundTransaction.getId());
+        recordWalletEvent(OutboxEventType.WALLET_BID_REFUNDED, wallet, refundTransaction);
         
         return mapToWalletResponse(wallet);
     }
@@ -235,11 +290,130 @@ public class WalletService {
     @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionHistory() {
         Wallet wallet = getOrCreateWallet();
-        List<Transaction> transactions = transactionRepository.findByWalletOrderByCreatedAtDesc(wallet);
-        
-        return transactions.stream()
-                .map(this::mapToTransactionResponse)
-                .collect(Collectors.toList());
+        try (Stream<Transaction> transactions = transactionRepository.streamByWallet(wallet)) {
+            return transactions
+                    .map(this::mapToTransactionResponse)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Get a page of the current user's transaction history, newest first
+     * Pages are addressed by a (createdAt, id) keyset cursor, so each page costs one index range scan
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the page size
+     * @return the page of transactions and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageResponse getTransactionHistoryPage(String cursor, int size) {
+        Wallet wallet = getOrCreateWallet();
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        // Fetch one extra row to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Transaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findPageByWallet(wallet, pageable);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            transactions = transactionRepository.findPageByWalletBefore(
+                    wallet, position.createdAt(), position.id(), pageable);
+        }
+
+        boolean hasMore = transactions.size() > pageSize;
+        List<Transaction> page = hasMore ? transactions.subList(0, pageSize) : transactions;
+        Transaction last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return TransactionPageResponse.builder()
+                .items(page.stream().map(this::mapToTransactionResponse).collect(Collectors.toList()))
+                .nextCursor(hasMore ? new HistoryCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
+    /**
+     * Write the current user's full transaction history as newline-delimited JSON
+     * Rows are streamed from the database and detached as they are written, so memory use stays
+     * constant regardless of the length of the history
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactionHistory(OutputStream out) throws IOException {
+        Wallet wallet = getOrCreateWallet();
+        int written = 0;
+
+        try (Stream<Transaction> transactions = transactionRepository.streamByWallet(wallet)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(mapToTransactionResponse(iterator.next())));
+                out.write('\n');
+
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Atomically add funds to a wallet and reload its balance
+     * @param wallet the wallet to credit
+     * @param amount the amount to add
+     */
+    private void credit(Wallet wallet, BigDecimal amount) {
+        walletRepository.credit(wallet.getId(), amount, LocalDateTime.now());
+        entityManager.refresh(wallet);
+    }
+
+    /**
+     * Atomically remove funds from a wallet and reload its balance
+     * The update only applies when the balance covers the amount, so concurrent debits cannot overdraw
+     * @param wallet the wallet to debit
+     * @param amount the amount to remove
+     * @throws AppException if the balance is insufficient
+     */
+    private void debit(Wallet wallet, BigDecimal amount) {
+        if (walletRepository.debit(wallet.getId(), amount, LocalDateTime.now()) == 0) {
+            throw new AppException("Insufficient balance", HttpStatus.BAD_REQUEST);
+        }
+        entityManager.refresh(wallet);
+    }
+
+    /**
+     * Record a wallet change in the outbox as part of the current transaction
+     * @param type the event type
+     * @param wallet the wallet, with its balance after the change
+     * @param transaction the transaction that caused the change
+     */
+    private void recordWalletEvent(OutboxEventType type, Wallet wallet, Transaction transaction) {
+        Map<String, Object> payload = walletEventPayload(wallet, transaction.getAmount());
+        payload.put("transactionId", transaction.getId());
+        if (transaction.getProduct() != null) {
+            payload.put("productId", transaction.getProduct().getId());
+        }
+        recordWalletEvent(type, wallet, payload);
+    }
+
+    /**
+     * Record a wallet change in the outbox as part of the current transaction
+     * @param type the event type
+     * @param wallet the wallet
+     * @param payload the event data
+     */
+    private void recordWalletEvent(OutboxEventType type, Wallet wallet, Map<String, Object> payload) {
+        outboxService.record(type, wallet.getId(), payload);
+        walletReadModelService.evictAfterCommit(wallet.getUser().getId());
+    }
+
+    private static Map<String, Object> walletEventPayload(Wallet wallet, BigDecimal amount) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("walletId", wallet.getId());
+        payload.put("userId", wallet.getUser().getId());
+        payload.put("amount", amount);
+        payload.put("balance", wallet.getBalance());
+        return payload;
     }
 
     /**
@@ -258,6 +432,23 @@ public class WalletService {
                 .build();
     }
 
+    /**
+     * Map a WalletView read model to a WalletResponse DTO
+     * @param view the wallet view
+     * @return the wallet response DTO
+     */
+    private WalletResponse mapToWalletResponse(WalletView view) {
+        return WalletResponse.builder()
+                .id(view.walletId())
+                .userId(view.userId())
+                .userName(view.userName())
+                .balance(view.balance())
+                .heldFunds(view.heldFunds())
+                .createdAt(view.createdAt())
+                .updatedAt(view.updatedAt())
+                .build();
+    }
+
     /**
      * Map a Transaction entity to a TransactionResponse DTO
      * @param transaction the transaction entity
@@ -283,4 +474,33 @@ public class WalletService {
         
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * A product bought from the wallet and the amount paid for it
+     */
+    public record Purchase(Product product, BigDecimal amount) {
+    }
+
+    /**
+     * Position in the transaction history, encoded as an opaque URL-safe string
+     */
+    private record HistoryCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new HistoryCursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new AppException("Invalid cursor", HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.celebstash.backend.util;
+
+import com.celebstash.backend.exception.AppException;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money in minor units (cents), for price arithmetic on hot paths.
+ * Amounts are stored and exchanged as BigDecimal with two decimal places; conversion in both directions
+ * is exact, and arithmetic fails with a bad request on overflow instead of wrapping.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * Convert an amount received at the API or read from the database
+     * @param amount the amount, with at most two decimal places
+     * @return the money value
+     * @throws AppException if the amount has more than two decimal places or is out of range
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return new Money(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw AppException.badRequest("Invalid amount: " + amount.toPlainString());
+        }
+    }
+
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    /**
+     * Add an amount
+     * @param other the amount to add
+     * @return the sum
+     * @throws AppException if the sum is out of range
+     */
+    public Money plus(Money other) {
+        try {
+            return new Money(Math.addExact(cents, other.cents));
+        } catch (ArithmeticException e) {
+            throw AppException.badRequest("Amount is too large");
+        }
+    }
+
+    /**
+     * Multiply by a quantity
+     * @param quantity the quantity
+     * @return the product
+     * @throws AppException if the product is out of range
+     */
+    public Money times(int quantity) {
+        try {
+            return new Money(Math.multiplyExact(cents, quantity));
+        } catch (ArithmeticException e) {
+            throw AppException.badRequest("Amount is too large");
+        }
+    }
+
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return cents > other.cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
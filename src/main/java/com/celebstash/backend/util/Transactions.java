@@ -0,0 +1,31 @@
+package com.celebstash.backend.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for work tied to the outcome of the surrounding transaction.
+ */
+public final class Transactions {
+
+    private Transactions() {
+    }
+
+    /**
+     * Run an action once the surrounding transaction commits, or right away if there is none
+     * Nothing runs if the transaction rolls back.
+     * @param action the action
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
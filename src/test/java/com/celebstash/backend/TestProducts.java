@@ -0,0 +1,27 @@
+package com.celebstash.backend;
+
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+
+import java.math.BigDecimal;
+
+/**
+ * Unsaved approved products for tests, priced at 10 with one in stock unless the test says otherwise.
+ */
+public final class TestProducts {
+
+    private TestProducts() {
+    }
+
+    public static Product.ProductBuilder builder(User seller) {
+        return Product.builder()
+                .name("Product")
+                .price(BigDecimal.TEN)
+                .stockQuantity(1)
+                .status(ProductStatus.APPROVED)
+                .productType(ProductType.REGULAR)
+                .seller(seller);
+    }
+}
@@ -0,0 +1,32 @@
+package com.celebstash.backend;
+
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.AccountStatus;
+import com.celebstash.backend.model.enums.AuthProvider;
+import com.celebstash.backend.model.enums.Role;
+
+import java.util.UUID;
+
+/**
+ * Unsaved verified users for tests, each with a unique email so tests sharing a database never collide.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    public static User user(String fullName) {
+        return user(fullName, Role.USER);
+    }
+
+    public static User user(String fullName, Role role) {
+        return User.builder()
+                .fullName(fullName)
+                .email(UUID.randomUUID() + "@celebstash.test")
+                .password("secret")
+                .role(role)
+                .provider(AuthProvider.LOCAL)
+                .status(AccountStatus.VERIFIED)
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.celebstash.backend.media;
+
+import com.celebstash.backend.media.MediaProbe.MediaKind;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MediaProbeTests {
+
+    @TempDir
+    Path storageDir;
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/photo", exchange -> respond(exchange, null, png(1600, 900)));
+        server.createContext("/clip", exchange -> respond(exchange, "video/mp4", mp4(1920, 1080, 600, 7500)));
+        server.createContext("/slow", exchange -> {
+            // Sends the headers at once, then a byte every 200 ms; without a content type, the probe reads them
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 50; i++) {
+                    out.write(0);
+                    out.flush();
+                    Thread.sleep(200);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/photo");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void probesImagesAndWritesThumbnails() throws IOException {
+        MediaProbe probe = probe(true);
+
+        MediaProbe.Result result = probe.probe(baseUrl + "/moved", EnumSet.of(MediaKind.IMAGE), "thumbnails/1");
+
+        assertThat(result.valid()).isTrue();
+        assertThat(result.contentType()).isEqualTo("image/png");
+        assertThat(result.width()).isEqualTo(1600);
+        assertThat(result.height()).isEqualTo(900);
+        assertThat(result.thumbnailUrl()).isEqualTo("/media/thumbnails/1.jpg");
+        BufferedImage thumbnail = ImageIO.read(storageDir.resolve("thumbnails/1.jpg").toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(320);
+        assertThat(thumbnail.getHeight()).isEqualTo(180);
+    }
+
+    @Test
+    void readsVideoDurationAndFrameSize() {
+        MediaProbe.Result result = probe(true).probe(baseUrl + "/clip", EnumSet.of(MediaKind.VIDEO), "thumbnails/2");
+
+        assertThat(result.valid()).isTrue();
+        assertThat(result.width()).isEqualTo(1920);
+        assertThat(result.height()).isEqualTo(1080);
+        assertThat(result.durationMillis()).isEqualTo(12500);
+    }
+
+    @Test
+    void rejectsWrongKindsAndPrivateHosts() {
+        assertThat(probe(true).probe(baseUrl + "/clip", EnumSet.of(MediaKind.IMAGE), "thumbnails/3").valid()).isFalse();
+        assertThat(probe(false).probe(baseUrl + "/photo", EnumSet.of(MediaKind.IMAGE), "thumbnails/4").failureReason())
+                .contains("private address");
+        assertThat(probe(false).checkSyntax("ftp://example.com/a.png")).isPresent();
+        assertThat(Files.exists(storageDir.resolve("thumbnails/4.jpg"))).isFalse();
+    }
+
+    @Test
+    void rejectsAddressesThatReachPrivateNetworks() throws UnknownHostException {
+        for (String address : new String[] {"127.0.0.1", "10.1.2.3", "100.64.0.1", "100.127.255.254", "0.0.0.0",
+                "169.254.169.254", "::1", "fd00::1", "::ffff:127.0.0.1", "::ffff:100.64.0.1", "::10.0.0.1"}) {
+            assertThat(MediaProbe.isPublic(InetAddress.getByName(address))).as(address).isFalse();
+        }
+        for (String address : new String[] {"93.184.216.34", "100.128.0.1", "::ffff:93.184.216.34", "2606:4700::1111"}) {
+            assertThat(MediaProbe.isPublic(InetAddress.getByName(address))).as(address).isTrue();
+        }
+    }
+
+    @Test
+    void stopsDownloadsThatOutlastTheDeadline() {
+        MediaProbe.Result result = new MediaProbe(new LocalMediaStorage(storageDir.toString()), 1 << 20, 1 << 20, true,
+                Duration.ofSeconds(1)).probe(baseUrl + "/slow", EnumSet.of(MediaKind.VIDEO), "thumbnails/5");
+
+        assertThat(result.valid()).isFalse();
+        assertThat(result.failureReason()).contains("deadline");
+    }
+
+    private MediaProbe probe(boolean allowPrivateHosts) {
+        return new MediaProbe(new LocalMediaStorage(storageDir.toString()), 1 << 20, 1 << 20, allowPrivateHosts,
+                Duration.ofSeconds(10));
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String contentType, byte[] body)
+            throws IOException {
+        if (contentType != null) {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    // Minimal MP4: ftyp and mdat boxes followed by a moov box with mvhd and one track header
+    private static byte[] mp4(int width, int height, int timescale, int duration) throws IOException {
+        ByteArrayOutputStream mvhd = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(mvhd);
+        data.writeInt(0);                      // version and flags
+        data.writeInt(0);                      // creation time
+        data.writeInt(0);                      // modification time
+        data.writeInt(timescale);
+        data.writeInt(duration);
+        data.write(new byte[80]);
+
+        ByteArrayOutputStream tkhd = new ByteArrayOutputStream();
+        data = new DataOutputStream(tkhd);
+        data.writeInt(0);                      // version and flags
+        data.write(new byte[20]);              // times, track ID and duration
+        data.write(new byte[16]);              // reserved, layer, group and volume
+        data.write(new byte[36]);              // matrix
+        data.writeInt(width << 16);
+        data.writeInt(height << 16);
+
+        byte[] trak = box("trak", box("tkhd", tkhd.toByteArray()));
+        byte[] moov = box("moov", concat(box("mvhd", mvhd.toByteArray()), trak));
+        return concat(box("ftyp", "isom\0\0\0\0".getBytes(StandardCharsets.US_ASCII)), box("mdat", new byte[4096]), moov);
+    }
+
+    private static byte[] box(String type, byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(8 + payload.length);
+        data.writeBytes(type);
+        data.write(payload);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part);
+        }
+        return out.toByteArray();
+    }
+}
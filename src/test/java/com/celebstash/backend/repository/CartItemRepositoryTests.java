@@ -0,0 +1,108 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.TestProducts;
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.dto.cart.AbandonedCart;
+import com.celebstash.backend.dto.cart.CartLineView;
+import com.celebstash.backend.model.Cart;
+import com.celebstash.backend.model.CartItem;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartItemRepositoryTests {
+
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void cartLinesLoadInOneStatementRegardlessOfSize() {
+        User user = createUser();
+        Cart cart = cartRepository.save(Cart.builder().user(user).createdAt(LocalDateTime.now()).build());
+        for (int i = 1; i <= ITEMS; i++) {
+            Product product = productRepository.save(TestProducts.builder(user)
+                    .name("Product " + i)
+                    .imageUrl("https://cdn.celebstash.test/" + i + ".jpg")
+                    .price(BigDecimal.valueOf(10L * i))
+                    .stockQuantity(10)
+                    .build());
+            cartItemRepository.save(CartItem.builder().cart(cart).product(product).quantity(i).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<CartLineView> lines = cartItemRepository.findLinesByCartId(cart.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(lines).hasSize(ITEMS);
+        assertThat(lines.get(0).productName()).isEqualTo("Product 1");
+        assertThat(lines.get(ITEMS - 1).productPrice()).isEqualByComparingTo("50");
+        assertThat(lines.get(ITEMS - 1).quantity()).isEqualTo(ITEMS);
+    }
+
+    @Test
+    void abandonedCartsAreFoundByLastChangeAndEmptiedInOneStatement() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(31);
+        Cart abandoned = createCartWithItem();
+        Cart active = createCartWithItem();
+        Cart empty = cartRepository.save(Cart.builder().user(createUser()).createdAt(LocalDateTime.now()).build());
+        cartRepository.touch(abandoned.getId(), cutoff.minusDays(1));
+        cartRepository.touch(active.getId(), LocalDateTime.now());
+        cartRepository.touch(empty.getId(), cutoff.minusDays(1));
+
+        List<AbandonedCart> found = cartRepository.findAbandoned(0L, cutoff, PageRequest.of(0, 10));
+
+        assertThat(found).extracting(AbandonedCart::cartId).containsExactly(abandoned.getId());
+        // A cart changed since it was found keeps its items
+        assertThat(cartItemRepository.deleteAllOfAbandonedCarts(List.of(abandoned.getId(), active.getId()), cutoff))
+                .isEqualTo(1);
+        assertThat(cartRepository.findAbandoned(0L, cutoff, PageRequest.of(0, 10))).isEmpty();
+        assertThat(cartItemRepository.findLinesByCartId(active.getId())).hasSize(1);
+    }
+
+    private Cart createCartWithItem() {
+        User user = createUser();
+        Cart cart = cartRepository.save(Cart.builder().user(user).createdAt(LocalDateTime.now()).build());
+        Product product = productRepository.save(TestProducts.builder(user).stockQuantity(10).build());
+        cartItemRepository.save(CartItem.builder().cart(cart).product(product).quantity(1).build());
+        return cart;
+    }
+
+    private User createUser() {
+        return userRepository.save(TestUsers.user("Cart Owner"));
+    }
+}
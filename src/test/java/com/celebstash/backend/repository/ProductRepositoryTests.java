@@ -0,0 +1,98 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.TestProducts;
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductRepositoryTests {
+
+    private static final int THREADS = 32;
+    private static final int BUYERS = 2000;
+    private static final int STOCK = 150;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentBuyersNeverOversellStock() throws Exception {
+        Long productId = createProduct(STOCK);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < BUYERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return tx.execute(status -> productRepository.decrementStock(
+                        productId, 1, ProductType.REGULAR, ProductStatus.APPROVED, LocalDateTime.now()));
+            }));
+        }
+        start.countDown();
+
+        int sold = 0;
+        for (Future<Integer> future : futures) {
+            sold += future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(sold).isEqualTo(STOCK);
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isZero();
+    }
+
+    @Test
+    void stockIsOnlyTakenFromApprovedRegularProducts() {
+        Long productId = createProduct(5);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        int taken = tx.execute(status -> productRepository.decrementStock(
+                productId, 1, ProductType.BIDDING, ProductStatus.APPROVED, LocalDateTime.now()));
+        int oversized = tx.execute(status -> productRepository.decrementStock(
+                productId, 6, ProductType.REGULAR, ProductStatus.APPROVED, LocalDateTime.now()));
+
+        assertThat(taken).isZero();
+        assertThat(oversized).isZero();
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isEqualTo(5);
+    }
+
+    private Long createProduct(int stock) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return tx.execute(status -> {
+            User seller = userRepository.save(TestUsers.user("Seller"));
+            return productRepository.save(TestProducts.builder(seller)
+                    .name("Signed Jersey")
+                    .price(BigDecimal.valueOf(99))
+                    .stockQuantity(stock)
+                    .build()).getId();
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.celebstash.backend.repository;
+
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.dto.wallet.WalletView;
+import com.celebstash.backend.model.Transaction;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.Wallet;
+import com.celebstash.backend.model.enums.TransactionStatus;
+import com.celebstash.backend.model.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletRepositoryTests {
+
+    private static final int THREADS = 16;
+    private static final int DEBITS_PER_THREAD = 25;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parallelDebitsNeverOverdrawOrLoseUpdates() throws Exception {
+        // Enough for exactly half of the attempted debits
+        BigDecimal amount = BigDecimal.valueOf(3);
+        BigDecimal initialBalance = amount.multiply(BigDecimal.valueOf(THREADS * DEBITS_PER_THREAD / 2));
+        Long walletId = createWallet(initialBalance);
+
+        List<Integer> applied = runConcurrently(() -> walletRepository.debit(walletId, amount, LocalDateTime.now()));
+
+        int succeeded = applied.stream().mapToInt(Integer::intValue).sum();
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow();
+        assertThat(succeeded).isEqualTo(THREADS * DEBITS_PER_THREAD / 2);
+        assertThat(wallet.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(wallet.getVersion()).isEqualTo(succeeded);
+    }
+
+    @Test
+    void parallelCreditsAndDebitsKeepBalanceExact() throws Exception {
+        BigDecimal initialBalance = BigDecimal.valueOf(1000);
+        Long walletId = createWallet(initialBalance);
+
+        List<Integer> applied = runConcurrently(() -> {
+            walletRepository.credit(walletId, new BigDecimal("2.50"), LocalDateTime.now());
+            return walletRepository.debit(walletId, new BigDecimal("1.25"), LocalDateTime.now());
+        });
+
+        int operations = applied.size();
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow();
+        assertThat(applied).allMatch(rows -> rows == 1);
+        assertThat(wallet.getBalance())
+                .isEqualByComparingTo(initialBalance.add(new BigDecimal("1.25").multiply(BigDecimal.valueOf(operations))));
+    }
+
+    @Test
+    void walletViewIncludesOwnerNameAndPendingBidHolds() {
+        Long walletId = createWallet(BigDecimal.valueOf(100));
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow();
+        saveTransaction(wallet, TransactionType.BID, TransactionStatus.PENDING, BigDecimal.valueOf(30));
+        saveTransaction(wallet, TransactionType.BID, TransactionStatus.PENDING, BigDecimal.valueOf(12));
+        saveTransaction(wallet, TransactionType.BID, TransactionStatus.REFUNDED, BigDecimal.valueOf(50));
+        saveTransaction(wallet, TransactionType.DEPOSIT, TransactionStatus.COMPLETED, BigDecimal.valueOf(100));
+
+        Long userId = new TransactionTemplate(transactionManager)
+                .execute(status -> walletRepository.findById(walletId).orElseThrow().getUser().getId());
+        WalletView view = walletRepository.findViewByUserId(userId, TransactionType.BID, TransactionStatus.PENDING)
+                .orElseThrow();
+
+        assertThat(view.walletId()).isEqualTo(walletId);
+        assertThat(view.userName()).isEqualTo("Wallet Owner");
+        assertThat(view.balance()).isEqualByComparingTo("100");
+        assertThat(view.heldFunds()).isEqualByComparingTo("42");
+    }
+
+    private void saveTransaction(Wallet wallet, TransactionType type, TransactionStatus status, BigDecimal amount) {
+        transactionRepository.save(Transaction.builder()
+                .wallet(wallet)
+                .type(type)
+                .status(status)
+                .amount(amount)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Long createWallet(BigDecimal balance) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return tx.execute(status -> {
+            User user = userRepository.save(TestUsers.user("Wallet Owner"));
+            return walletRepository.save(Wallet.builder().user(user).balance(balance).build()).getId();
+        });
+    }
+
+    private List<Integer> runConcurrently(Supplier<Integer> operation) throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS * DEBITS_PER_THREAD; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return tx.execute(status -> operation.get());
+            }));
+        }
+        start.countDown();
+
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
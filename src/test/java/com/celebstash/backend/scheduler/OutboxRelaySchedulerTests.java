@@ -0,0 +1,117 @@
+package com.celebstash.backend.scheduler;
+
+import com.celebstash.backend.event.DomainEvent;
+import com.celebstash.backend.event.OutboxEventSink;
+import com.celebstash.backend.model.OutboxEvent;
+import com.celebstash.backend.model.enums.OutboxEventType;
+import com.celebstash.backend.repository.OutboxEventRepository;
+import com.celebstash.backend.service.OutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = {
+        // Relay runs are driven by the test
+        "app.outbox.relay-interval-ms=3600000",
+        "app.outbox.max-attempts=2"
+})
+@Import({OutboxRelayScheduler.class, OutboxService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelaySchedulerTests {
+
+    private static final long POISONED_WALLET_ID = 13L;
+
+    @Autowired
+    private OutboxRelayScheduler relayScheduler;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private OutboxEventSink sink;
+
+    private final List<Long> deliveredWalletIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void failingEventIsRetriedWithBackoffThenParkedWithoutHoldingUpOthers() {
+        doAnswer(invocation -> {
+            List<DomainEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.aggregateId() == POISONED_WALLET_ID)) {
+                throw new IllegalStateException("Listener failed");
+            }
+            events.forEach(event -> deliveredWalletIds.add(event.aggregateId()));
+            return null;
+        }).when(sink).publish(any());
+        record(1L);
+        record(POISONED_WALLET_ID);
+        record(2L);
+
+        relayScheduler.relay();
+
+        assertThat(deliveredWalletIds).containsExactly(1L, 2L);
+        OutboxEvent poisoned = findByWalletId(POISONED_WALLET_ID);
+        assertThat(poisoned.getPublishedAt()).isNull();
+        assertThat(poisoned.getAttempts()).isEqualTo(1);
+        assertThat(poisoned.getLastError()).contains("Listener failed");
+
+        // Backing off, so a new event goes through on its own
+        record(3L);
+        relayScheduler.relay();
+        assertThat(deliveredWalletIds).containsExactly(1L, 2L, 3L);
+        assertThat(findByWalletId(POISONED_WALLET_ID).getAttempts()).isEqualTo(1);
+
+        makeDue(poisoned);
+        relayScheduler.relay();
+        poisoned = findByWalletId(POISONED_WALLET_ID);
+        assertThat(poisoned.getAttempts()).isEqualTo(2);
+        assertThat(poisoned.getParkedAt()).isNotNull();
+
+        makeDue(poisoned);
+        relayScheduler.relay();
+        assertThat(findByWalletId(POISONED_WALLET_ID).getAttempts()).isEqualTo(2);
+    }
+
+    private void record(Long walletId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxService.record(OutboxEventType.WALLET_TOPPED_UP, walletId, Map.of("walletId", walletId)));
+    }
+
+    private void makeDue(OutboxEvent event) {
+        event.setNextAttemptAt(null);
+        outboxEventRepository.save(event);
+    }
+
+    private OutboxEvent findByWalletId(Long walletId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(walletId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
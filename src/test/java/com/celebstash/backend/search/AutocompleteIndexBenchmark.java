@@ -0,0 +1,63 @@
+package com.celebstash.backend.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Memory per entry and lookup throughput of the autocomplete index.
+ * Skipped by default; run with {@code mvn test -Dtest=AutocompleteIndexBenchmark -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AutocompleteIndexBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int LOOKUPS = 2_000_000;
+    private static final String[] WORDS = {
+            "signed", "leather", "jacket", "tour", "poster", "vintage", "guitar", "limited", "edition",
+            "hoodie", "sneakers", "vinyl", "record", "photo", "stage", "worn", "custom", "gold", "album", "cap"};
+
+    @Test
+    void measureMemoryAndLookups() {
+        Random random = new Random(42);
+        AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+        for (int i = 0; i < ENTRIES; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " +
+                          WORDS[random.nextInt(WORDS.length)] + " " +
+                          WORDS[random.nextInt(WORDS.length)] + " " + Integer.toString(i, 36);
+            builder.add(new AutocompleteIndex.Entry(AutocompleteIndex.Kind.PRODUCT, (long) i, name, random.nextInt(10_000)));
+        }
+
+        long buildStarted = System.nanoTime();
+        AutocompleteIndex index = builder.build();
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+
+        String[] prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+
+        // Warm up, then measure
+        long found = 0;
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            found += index.suggest(prefixes[i & 1023], 10).size();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += index.suggest(prefixes[i & 1023], 10).size();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        log.info("Autocomplete: {} entries, {} keys, ~{} bytes/entry, built in {} ms, {} lookups/s",
+                index.size(), index.keyCount(), index.estimatedBytes() / index.size(), buildMillis,
+                Math.round(LOOKUPS / seconds));
+        assertThat(index.size()).isEqualTo(ENTRIES);
+        assertThat(found).isPositive();
+    }
+}
@@ -0,0 +1,47 @@
+package com.celebstash.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutocompleteIndexTests {
+
+    private final AutocompleteIndex index = new AutocompleteIndex.Builder()
+            .add(product(1L, "Signed Leather Jacket", 40))
+            .add(product(2L, "Leather Boots", 90))
+            .add(product(3L, "Tour Poster", 5))
+            .add(new AutocompleteIndex.Entry(AutocompleteIndex.Kind.SELLER, 7L, "Léa Lewis", 135))
+            .add(product(4L, "  ", 1000))
+            .build();
+
+    @Test
+    void suggestsMostPopularEntriesWithAWordStartingWithThePrefix() {
+        assertThat(texts(index.suggest("le", 10)))
+                .containsExactly("Léa Lewis", "Leather Boots", "Signed Leather Jacket");
+        assertThat(texts(index.suggest("lea", 2))).containsExactly("Léa Lewis", "Leather Boots");
+        assertThat(texts(index.suggest("JAC", 10))).containsExactly("Signed Leather Jacket");
+        assertThat(texts(index.suggest("leather b", 10))).containsExactly("Leather Boots");
+    }
+
+    @Test
+    void returnsEachSuggestionOnceAndNothingForUnknownPrefixes() {
+        AutocompleteIndex repeated = new AutocompleteIndex.Builder()
+                .add(product(1L, "Tour Tour Tour", 3))
+                .build();
+
+        assertThat(texts(repeated.suggest("tou", 10))).containsExactly("Tour Tour Tour");
+        assertThat(index.suggest("zebra", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+        assertThat(AutocompleteIndex.empty().suggest("le", 10)).isEmpty();
+    }
+
+    private static List<String> texts(List<AutocompleteIndex.Entry> entries) {
+        return entries.stream().map(AutocompleteIndex.Entry::text).toList();
+    }
+
+    private static AutocompleteIndex.Entry product(Long id, String name, long popularity) {
+        return new AutocompleteIndex.Entry(AutocompleteIndex.Kind.PRODUCT, id, name, popularity);
+    }
+}
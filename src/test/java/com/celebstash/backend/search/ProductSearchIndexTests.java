@@ -0,0 +1,59 @@
+package com.celebstash.backend.search;
+
+import com.celebstash.backend.model.enums.ProductType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.put(document(1L, "Signed Leather Jacket", "Worn on the world tour"));
+        index.put(document(2L, "Tour Poster", "Framed poster, comes with a leather sleeve"));
+        index.put(document(3L, "Guitar Pick", "Used on stage at the Café Royal"));
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        assertThat(productIds(index.search("leather", 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void matchesPrefixesTyposAndAccents() {
+        assertThat(productIds(index.search("jack", 10))).containsExactly(1L);
+        assertThat(productIds(index.search("lether", 10))).containsExactly(1L, 2L);
+        assertThat(productIds(index.search("gutiar", 10))).containsExactly(3L);
+        assertThat(productIds(index.search("cafe", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void documentsMatchingMoreQueryTermsRankFirst() {
+        assertThat(productIds(index.search("tour poster", 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflectedImmediately() {
+        index.put(document(1L, "Signed Denim Jacket", null));
+        index.remove(2L);
+
+        assertThat(index.search("leather", 10)).isEmpty();
+        assertThat(productIds(index.search("denim", 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private static List<Long> productIds(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.document().productId()).toList();
+    }
+
+    private static ProductSearchIndex.Document document(Long id, String name, String description) {
+        return new ProductSearchIndex.Document(
+                id, name, description, BigDecimal.TEN, null, ProductType.REGULAR, 1L, "Seller");
+    }
+}
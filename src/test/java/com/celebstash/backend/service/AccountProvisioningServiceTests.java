@@ -0,0 +1,51 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.repository.CartRepository;
+import com.celebstash.backend.repository.UserRepository;
+import com.celebstash.backend.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(AccountProvisioningService.class)
+class AccountProvisioningServiceTests {
+
+    @Autowired
+    private AccountProvisioningService accountProvisioningService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void backfillCreatesOnlyMissingWalletsAndCarts() {
+        User provisioned = createUser();
+        accountProvisioningService.provision(provisioned);
+        User legacy = createUser();
+        User outOfRange = createUser();
+
+        int created = accountProvisioningService.backfill(provisioned.getId() - 1, legacy.getId());
+
+        assertThat(created).isEqualTo(2);
+        assertThat(walletRepository.findByUserId(legacy.getId())).isPresent();
+        assertThat(cartRepository.findByUserId(legacy.getId())).isPresent();
+        assertThat(walletRepository.findByUserId(outOfRange.getId())).isEmpty();
+        assertThat(accountProvisioningService.backfill(provisioned.getId() - 1, legacy.getId())).isZero();
+    }
+
+    private User createUser() {
+        return userRepository.save(TestUsers.user("Account Owner"));
+    }
+}
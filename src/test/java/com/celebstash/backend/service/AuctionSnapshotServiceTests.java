@@ -0,0 +1,80 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.dto.bid.BidResponse;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import com.celebstash.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuctionSnapshotServiceTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final AuctionSnapshotService snapshotService = new AuctionSnapshotService(productRepository);
+
+    @Test
+    void listsOpenAuctionsEndingSoonestFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        when(productRepository.findOpenAuctionsWithBidder(eq(ProductType.BIDDING), eq(ProductStatus.APPROVED), any()))
+                .thenReturn(List.of(
+                        auction(1L, null),
+                        auction(2L, now.plusHours(5)),
+                        auction(3L, now.plusHours(1))));
+
+        snapshotService.rebuild();
+        Page<BidResponse> page = snapshotService.getActiveAuctions(PageRequest.of(0, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(BidResponse::getProductId).containsExactly(3L, 2L);
+        assertThat(snapshotService.getActiveAuctions(PageRequest.of(1, 2)).getContent())
+                .extracting(BidResponse::getProductId).containsExactly(1L);
+    }
+
+    @Test
+    void refreshAddsUpdatesAndRemovesAuctions() {
+        LocalDateTime now = LocalDateTime.now();
+        when(productRepository.findOpenAuctionsWithBidder(any(), any(), any())).thenReturn(List.of());
+        snapshotService.rebuild();
+
+        Product product = auction(7L, now.plusHours(2));
+        snapshotService.refresh(product);
+        assertThat(snapshotService.getActiveAuctions(PageRequest.of(0, 10)).getContent())
+                .extracting(BidResponse::getProductId).containsExactly(7L);
+
+        product.setCurrentBidPrice(BigDecimal.valueOf(250));
+        snapshotService.refresh(product);
+        assertThat(snapshotService.getActiveAuctions(PageRequest.of(0, 10)).getContent().get(0).getCurrentBidPrice())
+                .isEqualByComparingTo("250");
+
+        product.setBidEndTime(now.minusMinutes(1));
+        snapshotService.refresh(product);
+        assertThat(snapshotService.getActiveAuctions(PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    private static Product auction(Long id, LocalDateTime bidEndTime) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.TEN)
+                .stockQuantity(1)
+                .status(ProductStatus.APPROVED)
+                .productType(ProductType.BIDDING)
+                .initialBidPrice(BigDecimal.TEN)
+                .currentBidPrice(BigDecimal.TEN)
+                .bidStartTime(bidEndTime != null ? bidEndTime.minusHours(24) : null)
+                .bidEndTime(bidEndTime)
+                .build();
+    }
+}
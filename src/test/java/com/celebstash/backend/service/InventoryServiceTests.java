@@ -0,0 +1,122 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestProducts;
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.repository.InventoryShardRepository;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InventoryService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceTests {
+
+    private static final int THREADS = 32;
+    private static final int BUYERS = 2000;
+    private static final int STOCK = 150;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentBuyersNeverOversellShardedStock() throws Exception {
+        Product product = inventoryService.reshard(createProduct(STOCK), 8);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (int i = 0; i < BUYERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return tx.execute(status -> inventoryService.takeStock(product, 1, LocalDateTime.now()));
+            }));
+        }
+        start.countDown();
+
+        int sold = 0;
+        for (Future<Boolean> future : futures) {
+            sold += future.get(60, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(sold).isEqualTo(STOCK);
+        assertThat(inventoryService.rebalance(product.getId())).isZero();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isZero();
+    }
+
+    @Test
+    void largePurchasesDrawFromSeveralShardsAndReshardingPoolsStock() {
+        Product product = inventoryService.reshard(createProduct(10), 4);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Boolean tookNine = tx.execute(status -> inventoryService.takeStock(product, 9, LocalDateTime.now()));
+        Boolean tookTwo = tx.execute(status -> {
+            // Roll back like checkout does when stock cannot be taken
+            boolean taken = inventoryService.takeStock(product, 2, LocalDateTime.now());
+            if (!taken) {
+                status.setRollbackOnly();
+            }
+            return taken;
+        });
+
+        assertThat(tookNine).isTrue();
+        assertThat(tookTwo).isFalse();
+        assertThat(inventoryService.getAvailableStock(product.getId())).isEqualTo(1);
+
+        Product unsharded = inventoryService.reshard(product.getId(), 0);
+        assertThat(unsharded.getInventoryShards()).isZero();
+        assertThat(unsharded.getStockQuantity()).isEqualTo(1);
+        assertThat(inventoryService.getAvailableStock(product.getId())).isEqualTo(1);
+        assertThat(inventoryShardRepository.findAll())
+                .noneMatch(shard -> shard.getProductId().equals(product.getId()));
+    }
+
+    private Long createProduct(int stock) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return tx.execute(status -> {
+            User seller = userRepository.save(TestUsers.user("Seller"));
+            return productRepository.save(TestProducts.builder(seller)
+                    .name("Signed Jersey")
+                    .price(BigDecimal.valueOf(99))
+                    .stockQuantity(stock)
+                    .build()).getId();
+        });
+    }
+}
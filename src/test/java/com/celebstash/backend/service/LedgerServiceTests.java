@@ -0,0 +1,136 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.dto.ledger.WalletLedgerState;
+import com.celebstash.backend.model.LedgerEntry;
+import com.celebstash.backend.model.LedgerVerificationCheckpoint;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.Wallet;
+import com.celebstash.backend.model.enums.LedgerAccount;
+import com.celebstash.backend.repository.LedgerEntryRepository;
+import com.celebstash.backend.repository.UserRepository;
+import com.celebstash.backend.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(LedgerService.class)
+class LedgerServiceTests {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void balanceIsCheckpointPlusDelta() {
+        Wallet wallet = createWallet(BigDecimal.ZERO);
+
+        walletRepository.credit(wallet.getId(), BigDecimal.valueOf(100), LocalDateTime.now());
+        ledgerService.recordDeposit(wallet.getId(), BigDecimal.valueOf(100), null);
+        walletRepository.debit(wallet.getId(), BigDecimal.valueOf(30), LocalDateTime.now());
+        ledgerService.recordBidReservation(wallet.getId(), BigDecimal.valueOf(30), null);
+
+        List<WalletLedgerState> states = ledgerService.findWalletStates(wallet.getId() - 1, 1);
+        assertThat(states).singleElement().satisfies(state -> {
+            assertThat(state.isConsistent()).isTrue();
+            assertThat(state.ledgerBalance()).isEqualByComparingTo("70");
+        });
+        assertThat(ledgerService.advanceCheckpoints(states)).isEqualTo(1);
+
+        walletRepository.credit(wallet.getId(), BigDecimal.valueOf(30), LocalDateTime.now());
+        ledgerService.recordBidRefund(wallet.getId(), BigDecimal.valueOf(30), null);
+
+        assertThat(ledgerService.getBalance(wallet.getId())).isEqualByComparingTo("100");
+        assertThat(ledgerService.findWalletStates(wallet.getId() - 1, 1).get(0).isConsistent()).isTrue();
+        assertThat(ledgerService.findUnbalancedJournals(0L, ledgerService.getLatestEntryId())).isEmpty();
+    }
+
+    @Test
+    void purchasesPaidTogetherArePostedAsOneJournal() {
+        Wallet wallet = createWallet(BigDecimal.ZERO);
+        walletRepository.credit(wallet.getId(), BigDecimal.valueOf(100), LocalDateTime.now());
+        ledgerService.recordDeposit(wallet.getId(), BigDecimal.valueOf(100), null);
+        walletRepository.debit(wallet.getId(), BigDecimal.valueOf(35), LocalDateTime.now());
+        Long afterEntryId = ledgerService.getLatestEntryId();
+
+        Map<Long, BigDecimal> amounts = new LinkedHashMap<>();
+        amounts.put(11L, BigDecimal.valueOf(20));
+        amounts.put(12L, BigDecimal.valueOf(15));
+        ledgerService.recordPurchases(wallet.getId(), amounts);
+
+        List<LedgerEntry> entries = ledgerEntryRepository.findAll().stream()
+                .filter(entry -> entry.getId() > afterEntryId)
+                .toList();
+        assertThat(entries).hasSize(3);
+        assertThat(entries).extracting(LedgerEntry::getJournalId).containsOnly(entries.get(0).getJournalId());
+        assertThat(entries).filteredOn(entry -> entry.getAccount() == LedgerAccount.SALES)
+                .extracting(LedgerEntry::getTransactionId).containsExactlyInAnyOrder(11L, 12L);
+        assertThat(ledgerService.getBalance(wallet.getId())).isEqualByComparingTo("65");
+        assertThat(ledgerService.findUnbalancedJournals(afterEntryId, ledgerService.getLatestEntryId())).isEmpty();
+    }
+
+    @Test
+    void legacyBalanceIsOpenedOnce() {
+        Wallet wallet = createWallet(BigDecimal.valueOf(42));
+
+        assertThat(ledgerService.openLegacyBalance(wallet.getId())).isTrue();
+        assertThat(ledgerService.openLegacyBalance(wallet.getId())).isFalse();
+        assertThat(ledgerService.getBalance(wallet.getId())).isEqualByComparingTo("42");
+    }
+
+    @Test
+    void legacyBalanceIsOpenedAheadOfTheFirstPosting() {
+        Wallet wallet = createWallet(BigDecimal.valueOf(42));
+
+        walletRepository.credit(wallet.getId(), BigDecimal.valueOf(8), LocalDateTime.now());
+        ledgerService.recordDeposit(wallet.getId(), BigDecimal.valueOf(8), null);
+
+        assertThat(ledgerService.getBalance(wallet.getId())).isEqualByComparingTo("50");
+        assertThat(ledgerService.findWalletStates(wallet.getId() - 1, 1).get(0).isConsistent()).isTrue();
+        assertThat(ledgerService.openLegacyBalance(wallet.getId())).isFalse();
+        assertThat(ledgerEntryRepository.findAll())
+                .filteredOn(entry -> entry.getAccount() == LedgerAccount.OPENING_BALANCE)
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getAmount()).isEqualByComparingTo("-42"));
+    }
+
+    @Test
+    void journalVerificationTrailsRecentEntriesAndIsPersisted() {
+        Wallet wallet = createWallet(BigDecimal.ZERO);
+        walletRepository.credit(wallet.getId(), BigDecimal.TEN, LocalDateTime.now());
+        ledgerService.recordDeposit(wallet.getId(), BigDecimal.TEN, null);
+        Long latestEntryId = ledgerService.getLatestEntryId();
+
+        assertThat(ledgerService.getLatestEntryIdBefore(LocalDateTime.now().minusMinutes(10)))
+                .isLessThan(latestEntryId);
+        assertThat(ledgerService.getLatestEntryIdBefore(LocalDateTime.now().plusMinutes(1))).isEqualTo(latestEntryId);
+
+        assertThat(ledgerService.getVerifiedEntryId(LedgerVerificationCheckpoint.BALANCED_JOURNALS)).isZero();
+        ledgerService.markVerified(LedgerVerificationCheckpoint.BALANCED_JOURNALS, latestEntryId);
+        assertThat(ledgerService.getVerifiedEntryId(LedgerVerificationCheckpoint.BALANCED_JOURNALS))
+                .isEqualTo(latestEntryId);
+    }
+
+    private Wallet createWallet(BigDecimal balance) {
+        User user = userRepository.save(TestUsers.user("Ledger Owner"));
+        return walletRepository.save(Wallet.builder().user(user).balance(balance).build());
+    }
+}
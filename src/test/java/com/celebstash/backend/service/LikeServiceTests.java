@@ -0,0 +1,115 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.LikeableType;
+import com.celebstash.backend.repository.LegacyLikeRepository;
+import com.celebstash.backend.repository.LikeRepository;
+import com.celebstash.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({LikeService.class, LegacyLikeRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LikeServiceTests {
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS post_likes");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS comment_likes");
+        likeRepository.deleteAll();
+        likeService.detectLegacyLikes();
+    }
+
+    @Test
+    void likesAreIdempotentAndLookedUpPerBatch() {
+        User fan = createUser();
+
+        assertThat(likeService.like(fan.getId(), LikeableType.STORY, 7L)).isTrue();
+        assertThat(likeService.like(fan.getId(), LikeableType.STORY, 7L)).isFalse();
+        assertThat(likeService.like(fan.getId(), LikeableType.POST, 7L)).isTrue();
+        assertThat(likeService.like(createUser().getId(), LikeableType.STORY, 8L)).isTrue();
+
+        assertThat(likeService.findLikedIds(fan.getId(), LikeableType.STORY, List.of(7L, 8L, 9L))).containsExactly(7L);
+        assertThat(likeService.countLikes(LikeableType.STORY, 7L)).isEqualTo(1);
+        assertThat(likeService.unlike(fan.getId(), LikeableType.STORY, 7L)).isTrue();
+        assertThat(likeService.unlike(fan.getId(), LikeableType.STORY, 7L)).isFalse();
+        assertThat(likeService.countLikes(LikeableType.POST, 7L)).isEqualTo(1);
+        assertThat(likeService.isLegacyMigrationPending()).isFalse();
+    }
+
+    @Test
+    void legacyLikesCountUntilMovedAndAreNeitherDoubledNorBroughtBack() {
+        User first = createUser();
+        User second = createUser();
+        createLegacyTables();
+        insertLegacy("post_likes", "post_id", 10L, first.getId());
+        insertLegacy("post_likes", "post_id", 10L, second.getId());
+        insertLegacy("post_likes", "post_id", 20L, first.getId());
+        insertLegacy("comment_likes", "comment_id", 5L, second.getId());
+        likeService.detectLegacyLikes();
+
+        assertThat(likeService.isLegacyMigrationPending()).isTrue();
+        assertThat(likeService.findLikedIds(first.getId(), LikeableType.POST, List.of(10L, 20L, 30L)))
+                .containsExactlyInAnyOrder(10L, 20L);
+        assertThat(likeService.countLikes(LikeableType.POST, 10L)).isEqualTo(2);
+
+        // Liking a legacy like again is not a new like, and unliking one does not come back with the migration
+        assertThat(likeService.like(first.getId(), LikeableType.POST, 10L)).isFalse();
+        assertThat(likeService.unlike(second.getId(), LikeableType.POST, 10L)).isTrue();
+        assertThat(likeService.countLikes(LikeableType.POST, 10L)).isEqualTo(1);
+
+        assertThat(likeService.migrateLegacyLikes(LikeableType.POST, 1)).isEqualTo(1);
+        assertThat(likeService.migrateLegacyLikes(LikeableType.POST, 1)).isZero();
+        assertThat(likeService.isLegacyMigrationPending(LikeableType.POST)).isFalse();
+        assertThat(likeService.isLegacyMigrationPending()).isTrue();
+        assertThat(likeService.migrateLegacyLikes(LikeableType.COMMENT, 1000)).isEqualTo(1);
+        assertThat(likeService.migrateLegacyLikes(LikeableType.COMMENT, 1000)).isZero();
+
+        assertThat(likeService.isLegacyMigrationPending()).isFalse();
+        assertThat(likeService.countLikes(LikeableType.POST, 10L)).isEqualTo(1);
+        assertThat(likeService.findLikedIds(first.getId(), LikeableType.POST, List.of(10L, 20L)))
+                .containsExactlyInAnyOrder(10L, 20L);
+        assertThat(likeService.findLikedIds(second.getId(), LikeableType.POST, List.of(10L))).isEmpty();
+        assertThat(likeService.findLikedIds(second.getId(), LikeableType.COMMENT, List.of(5L))).containsExactly(5L);
+    }
+
+    private void createLegacyTables() {
+        // No longer mapped, but still present in databases created before likes were unified
+        jdbcTemplate.execute("CREATE TABLE post_likes " +
+                "(post_id BIGINT NOT NULL, user_id BIGINT NOT NULL, PRIMARY KEY (post_id, user_id))");
+        jdbcTemplate.execute("CREATE TABLE comment_likes " +
+                "(comment_id BIGINT NOT NULL, user_id BIGINT NOT NULL, PRIMARY KEY (comment_id, user_id))");
+    }
+
+    private void insertLegacy(String table, String idColumn, Long itemId, Long userId) {
+        jdbcTemplate.update("INSERT INTO " + table + " (" + idColumn + ", user_id) VALUES (?, ?)", itemId, userId);
+    }
+
+    private User createUser() {
+        return userRepository.save(TestUsers.user("Fan"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestProducts;
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.model.Post;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.repository.LegacyLikeRepository;
+import com.celebstash.backend.repository.PostCounterRepository;
+import com.celebstash.backend.repository.PostRepository;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.repository.UserRepository;
+import com.celebstash.backend.scheduler.PostLikeFlushScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// Flushes are triggered by the tests only
+@DataJpaTest(properties = "app.posts.like-flush-interval-ms=3600000")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PostService.class, PostCounterService.class, PostLikeFlushScheduler.class, LikeService.class,
+        LegacyLikeRepository.class, PostCounterRepository.class, MediaAssetService.class, EntityCacheService.class,
+        SimpleMeterRegistry.class})
+class PostLikeCounterTests {
+
+    private static final int THREADS = 16;
+    private static final int LIKERS = 120;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private PostLikeFlushScheduler postLikeFlushScheduler;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private MediaIngestionService mediaIngestionService;
+
+    @Test
+    void concurrentRepeatedLikesAreCountedOnceAndFlushedInBatches() throws Exception {
+        Long postId = createPost();
+        List<User> likers = new ArrayList<>();
+        for (int i = 0; i < LIKERS; i++) {
+            likers.add(createUser());
+        }
+        ThreadLocal<User> currentUser = new ThreadLocal<>();
+        when(userService.getCurrentUser()).thenAnswer(invocation -> currentUser.get());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (User liker : likers) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                currentUser.set(liker);
+                // Every like is sent twice, and every third liker changes their mind
+                postService.likePost(postId);
+                postService.likePost(postId);
+                if (liker.getId() % 3 == 0) {
+                    postService.unlikePost(postId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long expected = likers.stream().filter(liker -> liker.getId() % 3 != 0).count();
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isZero();
+        assertThat(postCounterService.getPendingLikes(postId)).isEqualTo(expected);
+
+        postLikeFlushScheduler.flush();
+
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isEqualTo(expected);
+        assertThat(postCounterService.getPendingLikes(postId)).isZero();
+        assertThat(postCounterService.reconcile(List.of(postId))).isZero();
+    }
+
+    @Test
+    void drainingWhileLikesArriveNeverLosesOrDuplicatesADelta() throws Exception {
+        int perThread = 20_000;
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            // IDs no real post has, so nothing else touches their counters
+            long postId = -1 - t % 4;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    postCounterService.recordLike(postId, 1);
+                }
+            }));
+        }
+
+        long[] drained = new long[1];
+        Future<?> drainer = executor.submit(() -> {
+            while (!done.get()) {
+                postCounterService.drainPendingLikes(2).values().forEach(delta -> drained[0] += delta);
+            }
+        });
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        drainer.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        Map<Long, Long> rest;
+        while (!(rest = postCounterService.drainPendingLikes(100)).isEmpty()) {
+            drained[0] += rest.values().stream().mapToLong(Long::longValue).sum();
+        }
+        assertThat(drained[0]).isEqualTo((long) THREADS * perThread);
+    }
+
+    private Long createPost() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User seller = createUser();
+            Product product = productRepository.save(TestProducts.builder(seller).name("Viral product").build());
+            return postRepository.save(Post.builder()
+                    .user(seller)
+                    .product(product)
+                    .videoUrl("https://cdn.celebstash.test/viral.mp4")
+                    .photoUrls(new ArrayList<>(List.of("https://cdn.celebstash.test/viral.jpg")))
+                    .build()).getId();
+        });
+    }
+
+    private User createUser() {
+        return userRepository.save(TestUsers.user("Fan"));
+    }
+}
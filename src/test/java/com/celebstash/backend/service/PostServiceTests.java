@@ -0,0 +1,214 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestProducts;
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.dto.post.PostResponse;
+import com.celebstash.backend.model.Comment;
+import com.celebstash.backend.model.Post;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.LikeableType;
+import com.celebstash.backend.repository.LegacyLikeRepository;
+import com.celebstash.backend.repository.PostCounterRepository;
+import com.celebstash.backend.repository.PostRepository;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PostService.class, PostCounterService.class, LikeService.class, MediaAssetService.class,
+        LegacyLikeRepository.class, PostCounterRepository.class, EntityCacheService.class, SimpleMeterRegistry.class})
+class PostServiceTests {
+
+    private static final int POSTS = 12;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private MediaIngestionService mediaIngestionService;
+
+    private final List<Long> postIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User seller = createUser();
+        for (int i = 0; i < POSTS; i++) {
+            Product product = productRepository.save(TestProducts.builder(seller).name("Product " + i).build());
+            postIds.add(postRepository.save(Post.builder()
+                    .user(seller)
+                    .product(product)
+                    .videoUrl("https://cdn.celebstash.test/" + i + ".mp4")
+                    .photoUrls(new ArrayList<>(List.of("https://cdn.celebstash.test/" + i + ".jpg")))
+                    .build()).getId());
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void feedReadsCountersAndNeverLoadsInteractionCollections() {
+        Long postId = postIds.get(0);
+        User viewer = createUser();
+        when(userService.getCurrentUser()).thenReturn(viewer);
+        likeService.like(viewer.getId(), LikeableType.POST, postId);
+        postRepository.adjustCounters(postId, 2, 0, 0);
+
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<PostResponse> feed = postService.getAllPosts(PageRequest.of(0, POSTS)).getContent();
+
+        assertThat(feed).hasSize(POSTS);
+        assertThat(feed).filteredOn(post -> post.getId().equals(postId))
+                .singleElement()
+                .satisfies(post -> {
+                    assertThat(post.getLikesCount()).isEqualTo(2);
+                    assertThat(post.isLiked()).isTrue();
+                });
+        for (String role : List.of("comments", "sharedBy")) {
+            assertThat(statistics.getCollectionStatistics(Post.class.getName() + "." + role).getFetchCount())
+                    .as(role)
+                    .isZero();
+        }
+    }
+
+    @Test
+    void likedFlagsOfAFeedPageCostOneQueryRegardlessOfPageSize() {
+        User viewer = createUser();
+        when(userService.getCurrentUser()).thenReturn(viewer);
+        List<Long> liked = List.of(postIds.get(1), postIds.get(5), postIds.get(11));
+        liked.forEach(postId -> likeService.like(viewer.getId(), LikeableType.POST, postId));
+        // Likes by someone else must not show up for the viewer
+        likeService.like(createUser().getId(), LikeableType.POST, postIds.get(2));
+
+        long smallPage = countStatements(() -> postService.getAllPosts(PageRequest.of(0, 4)));
+        long largePage = countStatements(() -> postService.getAllPosts(PageRequest.of(0, POSTS)));
+        List<PostResponse> feed = postService.getAllPosts(PageRequest.of(0, POSTS)).getContent();
+
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(feed).filteredOn(PostResponse::isLiked).extracting(PostResponse::getId)
+                .containsExactlyInAnyOrderElementsOf(liked);
+    }
+
+    @Test
+    void reconciliationRepairsCountersThatDrifted() {
+        Long postId = postIds.get(1);
+        // Likes written behind the counter's back
+        likeService.like(createUser().getId(), LikeableType.POST, postId);
+        likeService.like(createUser().getId(), LikeableType.POST, postId);
+
+        assertThat(postCounterService.reconcile(postIds)).isEqualTo(1);
+        assertThat(postCounterService.reconcile(postIds)).isZero();
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isEqualTo(2);
+    }
+
+    @Test
+    void commentAndShareCountersAreKeptUpToDateAndRecountedWithoutLikes() {
+        Post post = postRepository.findById(postIds.get(4)).orElseThrow();
+        User fan = createUser();
+        entityManager.persist(Comment.builder().post(post).user(fan).content("Love it").build());
+        postCounterService.recordComments(post.getId(), 1);
+        entityManager.clear();
+
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getCommentsCount()).isEqualTo(1);
+        assertThat(postCounterService.reconcileCommentsAndShares(postIds)).isZero();
+
+        // A comment written behind the counter's back, and a like that must be left alone
+        entityManager.persist(Comment.builder().post(postRepository.getReferenceById(post.getId()))
+                .user(fan).content("Again").build());
+        likeService.like(fan.getId(), LikeableType.POST, post.getId());
+
+        assertThat(postCounterService.reconcileCommentsAndShares(postIds)).isEqualTo(1);
+        Post reconciled = postRepository.findById(post.getId()).orElseThrow();
+        assertThat(reconciled.getCommentsCount()).isEqualTo(2);
+        assertThat(reconciled.getLikesCount()).isZero();
+    }
+
+    @Test
+    void savingAPostNeverOverwritesItsCounters() {
+        Long postId = postIds.get(2);
+        Post stale = postRepository.findById(postId).orElseThrow();
+        postRepository.adjustCounters(postId, 1, 0, 0);
+
+        stale.setLikesCount(0);
+        stale.setDescription("Edited");
+        postRepository.saveAndFlush(stale);
+        entityManager.clear();
+
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deletingAPostRemovesTheLikesOfItsComments() {
+        Post post = postRepository.findById(postIds.get(3)).orElseThrow();
+        User fan = createUser();
+        Comment comment = Comment.builder().post(post).user(fan).content("Love it").build();
+        entityManager.persist(comment);
+        likeService.like(fan.getId(), LikeableType.POST, post.getId());
+        likeService.like(fan.getId(), LikeableType.COMMENT, comment.getId());
+        // A like of an unrelated item of the same ID must survive
+        likeService.like(fan.getId(), LikeableType.STORY, comment.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        when(userService.getCurrentUser()).thenReturn(post.getUser());
+        postService.deletePost(post.getId());
+
+        assertThat(likeService.countLikes(LikeableType.POST, post.getId())).isZero();
+        assertThat(likeService.countLikes(LikeableType.COMMENT, comment.getId())).isZero();
+        assertThat(likeService.countLikes(LikeableType.STORY, comment.getId())).isEqualTo(1);
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User createUser() {
+        return userRepository.save(TestUsers.user("Feed User"));
+    }
+}
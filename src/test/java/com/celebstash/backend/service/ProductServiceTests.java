@@ -0,0 +1,248 @@
+package com.celebstash.backend.service;
+
+import com.celebstash.backend.TestProducts;
+import com.celebstash.backend.TestUsers;
+import com.celebstash.backend.dto.product.ProductBulkStatusUpdateRequest;
+import com.celebstash.backend.dto.product.ProductBulkStatusUpdateResponse;
+import com.celebstash.backend.dto.product.ProductCatalogFilter;
+import com.celebstash.backend.dto.product.ProductPageResponse;
+import com.celebstash.backend.dto.product.ProductResponse;
+import com.celebstash.backend.dto.product.ProductStatusChangeResult;
+import com.celebstash.backend.exception.AppException;
+import com.celebstash.backend.model.Post;
+import com.celebstash.backend.model.Product;
+import com.celebstash.backend.model.User;
+import com.celebstash.backend.model.enums.OutboxEventType;
+import com.celebstash.backend.model.enums.ProductStatus;
+import com.celebstash.backend.model.enums.ProductType;
+import com.celebstash.backend.model.enums.Role;
+import com.celebstash.backend.repository.OutboxEventRepository;
+import com.celebstash.backend.repository.PostRepository;
+import com.celebstash.backend.repository.ProductRepository;
+import com.celebstash.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProductService.class, AuctionSnapshotService.class, InventoryService.class, ProductSearchService.class,
+        EntityCacheService.class, ProductModerationService.class, OutboxService.class, ObjectMapper.class,
+        SimpleMeterRegistry.class})
+class ProductServiceTests {
+
+    private static final int APPROVED = 25;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockitoBean
+    private UserService userService;
+
+    private User seller;
+
+    @BeforeEach
+    void setUp() {
+        seller = createUser(Role.USER);
+        User buyer = createUser(Role.USER);
+        when(userService.getCurrentUser()).thenReturn(buyer);
+
+        for (int i = 0; i < APPROVED; i++) {
+            // Repeated prices exercise the ID tie-breaker
+            createProduct(BigDecimal.valueOf(10 + i % 7), ProductStatus.APPROVED);
+        }
+        for (int i = 0; i < 5; i++) {
+            createProduct(BigDecimal.ONE, ProductStatus.PENDING);
+        }
+    }
+
+    @Test
+    void catalogPagesWalkApprovedProductsInPriceOrderWithoutGapsOrDuplicates() {
+        ProductCatalogFilter filter = new ProductCatalogFilter(
+                null, null, null, null, null, ProductCatalogFilter.Sort.PRICE_ASC);
+        List<ProductResponse> walked = new ArrayList<>();
+
+        String cursor = null;
+        do {
+            ProductPageResponse page = productService.getCatalogPage(filter, cursor, 10);
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).hasSize(APPROVED);
+        assertThat(walked).extracting(ProductResponse::getId).doesNotHaveDuplicates();
+        assertThat(walked).allMatch(product -> product.getStatus() == ProductStatus.APPROVED);
+        assertThat(walked).isSortedAccordingTo(Comparator
+                .comparing(ProductResponse::getPrice)
+                .thenComparing(ProductResponse::getId));
+    }
+
+    @Test
+    void sellersSeeTheirOwnPendingProducts() {
+        when(userService.getCurrentUser()).thenReturn(seller);
+        ProductCatalogFilter filter = new ProductCatalogFilter(
+                null, null, BigDecimal.valueOf(5), seller.getId(), null, ProductCatalogFilter.Sort.NEWEST);
+
+        ProductPageResponse page = productService.getCatalogPage(filter, null, 20);
+
+        assertThat(page.getItems()).hasSize(5).allMatch(product -> product.getStatus() == ProductStatus.PENDING);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void catalogPageCostsTheSameNumberOfQueriesRegardlessOfSize() {
+        // Every product gets a distinct current bidder so lazy loading would show up per row
+        List<Product> products = productRepository.findByStatus(ProductStatus.APPROVED);
+        for (Product product : products) {
+            product.setProductType(ProductType.BIDDING);
+            product.setCurrentBidder(createUser(Role.USER));
+        }
+        Product showcased = products.get(0);
+        postRepository.save(Post.builder()
+                .user(seller)
+                .product(showcased)
+                .videoUrl("https://cdn.celebstash.test/video.mp4")
+                .build());
+        entityManager.flush();
+
+        ProductCatalogFilter filter = new ProductCatalogFilter(
+                null, null, null, null, null, ProductCatalogFilter.Sort.NEWEST);
+        long smallPage = countStatements(() -> productService.getCatalogPage(filter, null, 5));
+        long largePage = countStatements(() -> productService.getCatalogPage(filter, null, APPROVED));
+
+        // One query for the products with their users, one for their post IDs
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(largePage).isEqualTo(smallPage);
+
+        entityManager.clear();
+        ProductResponse response = productService.getCatalogPage(filter, null, APPROVED).getItems().stream()
+                .filter(product -> product.getId().equals(showcased.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(response.isHasPost()).isTrue();
+        assertThat(response.getPostId()).isNotNull();
+        assertThat(response.getCurrentBidderName()).isEqualTo("Catalog User");
+    }
+
+    @Test
+    void repeatedProductReadsAreServedFromTheEntityCache() {
+        Long productId = productRepository.findByStatus(ProductStatus.APPROVED).get(0).getId();
+        entityManager.flush();
+
+        long firstRead = countStatements(() -> productService.getProductById(productId));
+        long secondRead = countStatements(() -> productService.getProductById(productId));
+
+        // Only the post lookup is left on a cache hit
+        assertThat(firstRead).isEqualTo(2);
+        assertThat(secondRead).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkApprovalReportsEveryProductAndRecordsOneEventPerChange() {
+        when(userService.getCurrentUser()).thenReturn(createUser(Role.ADMIN));
+        List<Long> pendingIds = productService.getModerationQueue(null, 50).getItems().stream()
+                .map(ProductResponse::getId)
+                .toList();
+        Long approvedId = productRepository.findByStatus(ProductStatus.APPROVED).get(0).getId();
+        List<Long> requested = new ArrayList<>(pendingIds);
+        requested.add(approvedId);
+        requested.add(-1L);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ProductBulkStatusUpdateResponse response = productService.bulkUpdateProductStatus(
+                ProductBulkStatusUpdateRequest.builder()
+                        .productIds(requested)
+                        .status(ProductStatus.APPROVED)
+                        .build());
+        entityManager.flush();
+
+        // One set-based update for the chunk, never a row-by-row update of the loaded products
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+
+        assertThat(pendingIds).hasSize(5);
+        assertThat(response.getUpdated()).isEqualTo(5);
+        assertThat(response.getResults()).extracting(ProductStatusChangeResult::getOutcome).containsExactly(
+                ProductStatusChangeResult.Outcome.UPDATED,
+                ProductStatusChangeResult.Outcome.UPDATED,
+                ProductStatusChangeResult.Outcome.UPDATED,
+                ProductStatusChangeResult.Outcome.UPDATED,
+                ProductStatusChangeResult.Outcome.UPDATED,
+                ProductStatusChangeResult.Outcome.UNCHANGED,
+                ProductStatusChangeResult.Outcome.NOT_FOUND);
+        assertThat(productService.getModerationQueue(null, 50).getItems()).isEmpty();
+        assertThat(productRepository.findAllById(pendingIds))
+                .allMatch(product -> product.getStatus() == ProductStatus.APPROVED && product.getApprovedAt() != null);
+        entityManager.clear();
+        assertThat(productRepository.findAllById(pendingIds))
+                .allMatch(product -> product.getStatus() == ProductStatus.APPROVED && product.getApprovedAt() != null);
+        assertThat(outboxEventRepository.findAll())
+                .hasSize(5)
+                .allMatch(event -> event.getType() == OutboxEventType.PRODUCT_STATUS_CHANGED);
+        assertThatThrownBy(() -> productService.bulkUpdateProductStatus(ProductBulkStatusUpdateRequest.builder()
+                .productIds(pendingIds)
+                .status(ProductStatus.PENDING)
+                .build()))
+                .isInstanceOf(AppException.class);
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createProduct(BigDecimal price, ProductStatus status) {
+        productRepository.save(TestProducts.builder(seller)
+                .price(price)
+                .status(status)
+                .build());
+    }
+
+    private User createUser(Role role) {
+        return userRepository.save(TestUsers.user("Catalog User", role));
+    }
+}
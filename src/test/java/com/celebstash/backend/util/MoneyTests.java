@@ -0,0 +1,28 @@
+package com.celebstash.backend.util;
+
+import com.celebstash.backend.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    @Test
+    void convertsExactlyInBothDirections() {
+        assertThat(Money.of(new BigDecimal("19.99")).cents()).isEqualTo(1999);
+        assertThat(Money.of(new BigDecimal("5")).cents()).isEqualTo(500);
+        assertThat(Money.of(new BigDecimal("0.100")).cents()).isEqualTo(10);
+        assertThat(Money.ofCents(1999).times(3).toBigDecimal()).isEqualTo(new BigDecimal("59.97"));
+        assertThat(Money.ofCents(10).plus(Money.ofCents(20)).toBigDecimal()).isEqualTo(new BigDecimal("0.30"));
+    }
+
+    @Test
+    void rejectsFractionsOfACentAndOverflow() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.005"))).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).times(2)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1))).isInstanceOf(AppException.class);
+    }
+}